@@ -1,13 +1,86 @@
 package pepse.util;
 
+import java.util.Arrays;
 import java.util.Random;
 
 public class NoiseGenerator {
-    private double seed;
+    /**
+     * Selects how each octave is evaluated.
+     *
+     * <p>Terrain only ever samples the noise along x, with y and z pinned, so
+     * both modes use a dedicated 1D kernel instead of interpolating the 8
+     * corners of a 3D cube.</p>
+     */
+    public enum Mode {
+        /**
+         * Reproduces the classic 3D evaluation bit for bit, so existing seeds keep
+         * their exact terrain. Only the 4 corners of the z = 0 face are hashed and
+         * blended: with z pinned to 0 the far face has zero weight.
+         */
+        COMPATIBLE,
+        /**
+         * A true 1D gradient noise evaluated in float precision: two hashes and one
+         * lerp per octave. Produces different (but equally smooth) terrain, so it
+         * is meant for new worlds.
+         */
+        FAST
+    }
+
+    /**
+     * Selects how the batch methods ({@link #noiseRange} and {@link #noiseAt})
+     * are evaluated. Both backends produce exactly the same values.
+     */
+    public enum Backend {
+        /** One sample at a time, on plain doubles. */
+        SCALAR,
+        /**
+         * A lane-width of samples per step through the JDK Vector API. Needs the
+         * optional {@code vector/} source root on the class path and the
+         * {@code jdk.incubator.vector} module ({@code --add-modules jdk.incubator.vector});
+         * without either the scalar backend is used instead.
+         */
+        VECTOR
+    }
+
+    /** Evaluates a whole batch of samples; implemented by the optional vector backend. */
+    interface BatchKernel {
+        void noiseAt(double[] xs, int count, double factor, double[] out);
+    }
+
+    /** Module providing the Vector API. */
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    /**
+     * Class of the vector backend, built from the optional {@code vector/} source root;
+     * only loaded when that module is present.
+     */
+    private static final String VECTOR_KERNEL = "pepse.util.VectorNoiseKernel";
+    /** Samples compared against the scalar path before a vector backend is accepted. */
+    private static final int CROSS_CHECK_SAMPLES = 333;
+
+    /** Corner hashes remembered per octave by the batch methods. */
+    private static final int HASHES_PER_CELL = 4;
+    /** Marks an octave whose last unit cube is not known yet. */
+    private static final int NO_CELL = -1;
+    /** Period of the permutation table. */
+    private static final double PERIOD = 256.0;
+
+    /* package-private fields are read by VectorNoiseKernel */
+    double seed;
     private long default_size;
-    private int[] p;
+    int[] p;
     private int[] permutation;
-    private double startPoint;
+    double startPoint;
+    final Mode mode;
+
+    /* y is pinned to 0 + seed and z to 0, so their part of the hashing and fading is constant */
+    int pinnedY;
+    double pinnedYFraction;
+    double pinnedYFade;
+    /** Seed offset of the fast kernel, reduced modulo the table period so it stays small. */
+    double fastSeedOffset;
+
+    /** The vector backend in use, or {@code null} while the scalar backend is. */
+    private volatile BatchKernel vectorKernel;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -22,8 +95,22 @@ public class NoiseGenerator {
      *
      */
     public NoiseGenerator(double seed, int startPoint) {
+        this(seed, startPoint, Mode.COMPATIBLE);
+    }
+
+    /**
+     * The constructor of the NoiseGenerator class with an explicit kernel.
+     *
+     * @param seed       the basis of the random generator, as in {@link #NoiseGenerator(double, int)}.
+     * @param startPoint the relative point the noise is generated from, as in
+     *                   {@link #NoiseGenerator(double, int)}.
+     * @param mode       {@link Mode#COMPATIBLE} for the exact classic output,
+     *                   {@link Mode#FAST} for the cheaper float 1D kernel.
+     */
+    public NoiseGenerator(double seed, int startPoint, Mode mode) {
         this.seed = seed;
         this.startPoint = startPoint;
+        this.mode = mode;
         init();
     }
 
@@ -57,6 +144,14 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        // Everything that depends only on the pinned y and z coordinates.
+        double y = 0;
+        y += this.seed;
+        this.pinnedY = (int) Math.floor(y) & 255;
+        this.pinnedYFraction = y - Math.floor(y);
+        this.pinnedYFade = fade(pinnedYFraction);
+        this.fastSeedOffset = (this.seed % PERIOD + this.seed % PERIOD) % PERIOD;
+
     }
 
     /**
@@ -78,47 +173,244 @@ public class NoiseGenerator {
         double currentPoint = startPoint;
 
         while (currentPoint >= 1) {
-            value += smoothNoise((x / currentPoint), 0, 0) * currentPoint;
+            value += smoothNoise(x / currentPoint) * currentPoint;
+            currentPoint /= 2.0;
+        }
+
+        return value * factor / startPoint;
+    }
+
+
+    /**
+     * Batch version of {@link #noise(double, double)} for evenly spaced samples.
+     * Sample {@code i} is taken at {@code startX + i * step}, and
+     * {@code out[i]} is exactly what {@code noise(startX + i * step, factor)} returns.
+     *
+     * @param startX the x of the first sample.
+     * @param step   the distance between neighbouring samples.
+     * @param count  how many samples to write into {@code out}.
+     * @param factor describes how large the noise should be, as in {@link #noise(double, double)}.
+     * @param out    receives the noise of every sample; must hold at least {@code count} values.
+     */
+    public void noiseRange(double startX, double step, int count, double factor, double[] out) {
+        BatchKernel kernel = vectorKernel;
+        if (kernel != null) {
+            for (int i = 0; i < count; i++) {
+                out[i] = startX + i * step;
+            }
+            kernel.noiseAt(out, count, factor, out);
+            return;
+        }
+        int[] cells = newCellCache();
+        int[] hashes = new int[cells.length * HASHES_PER_CELL];
+        for (int i = 0; i < count; i++) {
+            out[i] = noise(startX + i * step, factor, cells, hashes);
+        }
+    }
+
+    /**
+     * Batch version of {@link #noise(double, double)} for arbitrary samples.
+     * {@code out[i]} is exactly what {@code noise(xs[i], factor)} returns.
+     *
+     * @param xs     the x of every sample; neighbouring samples should be close
+     *               to each other to benefit from the shared lookups.
+     * @param count  how many samples to read from {@code xs} and write into {@code out}.
+     * @param factor describes how large the noise should be, as in {@link #noise(double, double)}.
+     * @param out    receives the noise of every sample; may be {@code xs} itself.
+     */
+    public void noiseAt(double[] xs, int count, double factor, double[] out) {
+        BatchKernel kernel = vectorKernel;
+        if (kernel != null) {
+            kernel.noiseAt(xs, count, factor, out);
+            return;
+        }
+        int[] cells = newCellCache();
+        int[] hashes = new int[cells.length * HASHES_PER_CELL];
+        for (int i = 0; i < count; i++) {
+            out[i] = noise(xs[i], factor, cells, hashes);
+        }
+    }
+
+    /** @return the kernel this generator evaluates */
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Switches the backend of the batch methods; may be called at any time.
+     *
+     * <p>{@link Backend#VECTOR} is only accepted if the Vector API is available
+     * and a batch evaluated through it matches {@link #noise(double, double)}
+     * sample for sample; otherwise the generator stays on (or returns to)
+     * {@link Backend#SCALAR}.</p>
+     *
+     * @param requested the wanted backend.
+     * @return the backend actually in use from now on.
+     */
+    public Backend useBackend(Backend requested) {
+        BatchKernel kernel = requested == Backend.VECTOR ? loadVectorKernel() : null;
+        if (kernel != null && !matchesScalar(kernel)) {
+            kernel = null;
+        }
+        vectorKernel = kernel;
+        return backend();
+    }
+
+    /** @return the backend the batch methods currently use */
+    public Backend backend() {
+        return vectorKernel == null ? Backend.SCALAR : Backend.VECTOR;
+    }
+
+    /** @return the vector backend, or {@code null} if this JVM cannot provide it */
+    private BatchKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (BatchKernel) Class.forName(VECTOR_KERNEL)
+                    .getDeclaredConstructor(NoiseGenerator.class)
+                    .newInstance(this);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Cross-checks a batch kernel against the scalar path on both sides of x = 0. */
+    private boolean matchesScalar(BatchKernel kernel) {
+        double[] xs = new double[CROSS_CHECK_SAMPLES];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = (i - xs.length / 2) * 7.3;
+        }
+        double[] out = new double[xs.length];
+        kernel.noiseAt(xs, xs.length, 1, out);
+        for (int i = 0; i < xs.length; i++) {
+            if (out[i] != noise(xs[i], 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Neighbouring samples of a batch usually fall into the same unit cell of
+     * an octave, so the corner hashes of the last cell visited by each octave
+     * are remembered and reused. The arithmetic is otherwise identical to
+     * noise/smoothNoise, so batch and scalar results match bit for bit.
+     */
+
+    /** @return one "last cell" slot per octave, all empty */
+    private int[] newCellCache() {
+        int octaves = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            octaves++;
+        }
+        int[] cells = new int[octaves];
+        Arrays.fill(cells, NO_CELL);
+        return cells;
+    }
+
+    private double noise(double x, double factor, int[] cells, int[] hashes) {
+        double value = 0.0;
+        double currentPoint = startPoint;
+        int octave = 0;
+
+        while (currentPoint >= 1) {
+            double octaveNoise = mode == Mode.FAST
+                    ? fastNoise(x / currentPoint)
+                    : compatibleNoise(x / currentPoint, octave, cells, hashes);
+            value += octaveNoise * currentPoint;
             currentPoint /= 2.0;
+            octave++;
         }
 
         return value * factor / startPoint;
     }
 
+    private double smoothNoise(double x) {
+        if (mode == Mode.FAST) {
+            return fastNoise(x);
+        }
+        return compatibleNoise(x, 0, null, null);
+    }
 
-    private double smoothNoise(double x, double y, double z) {
-        // Offset each coordinate by the seed value
+    /**
+     * The classic 3D noise restricted to y = 0 + seed, z = 0.
+     *
+     * <p>With z = 0 the far face of the cube has weight fade(0) = 0, so only the
+     * 4 corners of the near face are hashed, graded and blended; y's cell and
+     * fade are precomputed. The remaining operations are performed exactly as
+     * in the 3D version, so every octave produces the same double (up to the
+     * sign of a zero, which the octave sum erases).</p>
+     *
+     * @param cells  per-octave last cell, or {@code null} to hash every call
+     * @param hashes per-octave corner hashes matching {@code cells}
+     */
+    private double compatibleNoise(double x, int octave, int[] cells, int[] hashes) {
+        // Offset by the seed value exactly as the 3D version does
         x += this.seed;
-        y += this.seed;
         x += this.seed;
 
-        int X = (int) Math.floor(x) & 255; // FIND UNIT CUBE THAT
-        int Y = (int) Math.floor(y) & 255; // CONTAINS POINT.
-        int Z = (int) Math.floor(z) & 255;
+        int X = (int) Math.floor(x) & 255; // FIND UNIT CELL THAT CONTAINS POINT.
+        x -= Math.floor(x);                // FIND RELATIVE X OF POINT IN CELL.
+        double u = fade(x);                // COMPUTE FADE CURVE.
+        double y = pinnedYFraction;
 
-        x -= Math.floor(x); // FIND RELATIVE X,Y,Z
-        y -= Math.floor(y); // OF POINT IN CUBE.
-        z -= Math.floor(z);
+        int hAA;
+        int hBA;
+        int hAB;
+        int hBB;
+        if (cells != null && cells[octave] == X) {
+            int h = octave * HASHES_PER_CELL;
+            hAA = hashes[h];
+            hBA = hashes[h + 1];
+            hAB = hashes[h + 2];
+            hBB = hashes[h + 3];
+        } else {
+            int A = p[X] + pinnedY;
+            int B = p[X + 1] + pinnedY;
+            hAA = p[p[A]];      // HASH COORDINATES OF
+            hBA = p[p[B]];      // THE 4 CORNERS ON
+            hAB = p[p[A + 1]];  // THE z = 0 FACE.
+            hBB = p[p[B + 1]];
+            if (cells != null) {
+                int h = octave * HASHES_PER_CELL;
+                hashes[h] = hAA;
+                hashes[h + 1] = hBA;
+                hashes[h + 2] = hAB;
+                hashes[h + 3] = hBB;
+                cells[octave] = X;
+            }
+        }
 
-        double u = fade(x); // COMPUTE FADE CURVES
-        double v = fade(y); // FOR EACH OF X,Y,Z.
-        double w = fade(z);
+        return lerp(pinnedYFade, lerp(u, grad(hAA, x, y, 0),        // BLENDED
+                        grad(hBA, x - 1, y, 0)),                     // RESULTS
+                lerp(u, grad(hAB, x, y - 1, 0),                      // FROM 4
+                        grad(hBB, x - 1, y - 1, 0)));                // CORNERS
+    }
 
-        int A = p[X] + Y;
-        int AA = p[A] + Z;
-        int AB = p[A + 1] + Z; // HASH COORDINATES OF
-        int B = p[X + 1] + Y;
-        int BA = p[B] + Z;
-        int BB = p[B + 1] + Z; // THE 8 CUBE CORNERS,
+    /**
+     * A true 1D gradient noise in float precision: the two neighbouring lattice
+     * points get a pseudo-random slope and their contributions are blended by
+     * the same quintic fade.
+     */
+    private double fastNoise(double x) {
+        double shifted = x + fastSeedOffset;
+        int cell = (int) shifted;
+        if (shifted < cell) {
+            cell--;                // floor without the Math.floor call
+        }
+        int X = cell & 255;
+        float fx = (float) (shifted - cell);
+        float u = fx * fx * fx * (fx * (fx * 6f - 15f) + 10f);
+        float a = slope(p[X]) * fx;
+        float b = slope(p[X + 1]) * (fx - 1f);
+        return a + u * (b - a);
+    }
 
-        return lerp(w, lerp(v, lerp(u, grad(p[AA], x, y, z),    // AND ADD
-                                grad(p[BA], x - 1, y, z)), // BLENDED
-                        lerp(u, grad(p[AB], x, y - 1, z),    // RESULTS
-                                grad(p[BB], x - 1, y - 1, z))),// FROM 8
-                lerp(v, lerp(u, grad(p[AA + 1], x, y, z - 1),    // CORNERS
-                                grad(p[BA + 1], x - 1, y, z - 1)), // OF CUBE
-                        lerp(u, grad(p[AB + 1], x, y - 1, z - 1),
-                                grad(p[BB + 1], x - 1, y - 1, z - 1))));
+    /** Maps a hash to a slope in [-1,-0.5] or [0.5,1], roughly matching the classic amplitude. */
+    static float slope(int hash) {
+        float magnitude = 0.5f + (hash & 7) / 14f;
+        return (hash & 8) == 0 ? magnitude : -magnitude;
     }
 
     private double fade(double t) {
@@ -129,7 +421,7 @@ public class NoiseGenerator {
         return a + t * (b - a);
     }
 
-    private double grad(int hash, double x, double y, double z) {
+    static double grad(int hash, double x, double y, double z) {
         int h = hash & 15; // CONVERT LO 4 BITS OF HASH CODE
         double u = h < 8 ? x : y, // INTO 12 GRADIENT DIRECTIONS.
                 v = h < 4 ? y : h == 12 || h == 14 ? x : z;
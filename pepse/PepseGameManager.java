@@ -9,20 +9,21 @@ import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
 
+import pepse.util.NoiseGenerator;
 import pepse.world.*;
 
 import pepse.world.pepse.world.daynight.Night;
 import pepse.world.pepse.world.daynight.Sun;
 import pepse.world.pepse.world.daynight.SunHalo;
-import pepse.world.pepse.world.daynight.Cloud;
+import pepse.world.pepse.world.daynight.WeatherSystem;
+import pepse.world.pepse.world.daynight.WorldClock;
 
-import java.util.List;
 import java.util.Random;
-import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 import danogl.collisions.Layer;
 import pepse.world.pepse.world.trees.Flora;
+import pepse.world.pepse.world.trees.LeafSwaySystem;
 import pepse.world.pepse.world.trees.Tree;
 
 /**
@@ -38,6 +39,41 @@ public class PepseGameManager extends GameManager {
 	 */
 	private static final float LIFE_CYCLE = 30f ;
 	private static final String AVATAR_TAG = "avatar";
+	/**
+	 * How far past the camera edges (pixels) a world chunk may drift before it is unloaded.
+	 * Use {@link InfiniteWorldManager#KEEP_ALL} to keep every chunk ever generated.
+	 */
+	private static final int UNLOAD_DISTANCE = InfiniteWorldManager.CHUNK_WIDTH * 2;
+	/**
+	 * Noise kernel of the terrain: COMPATIBLE reproduces the heights of existing seeds
+	 * exactly, FAST is cheaper but shapes a different world for the same seed.
+	 */
+	private static final NoiseGenerator.Mode TERRAIN_NOISE_MODE = NoiseGenerator.Mode.COMPATIBLE;
+	/**
+	 * Backend of batched terrain noise. VECTOR needs the optional vector/ source root and
+	 * {@code --add-modules jdk.incubator.vector} at run time (see the README) and silently
+	 * falls back to SCALAR without them; both
+	 * produce identical heights.
+	 */
+	private static final NoiseGenerator.Backend TERRAIN_NOISE_BACKEND = NoiseGenerator.Backend.SCALAR;
+	/** Number of block columns whose surface height is cached (a direct-mapped table). */
+	private static final int HEIGHT_CACHE_COLUMNS = 4096;
+	/** Number of background threads that plan upcoming world strips. */
+	private static final int WORLD_GEN_THREADS = 2;
+	/** Maximum number of generated objects inserted into the scene per frame. */
+	private static final int MATERIALIZE_OBJECTS_PER_FRAME = 120;
+	/** Maximum time (nanoseconds) spent inserting generated objects per frame. */
+	private static final long MATERIALIZE_NANOS_PER_FRAME = 2_000_000L;
+	/** Resolution of timed world events such as fruit respawns (seconds). */
+	private static final float TIMER_TICK_SECONDS = 0.1f;
+	/** Buckets of the world's timer wheel; one turn lasts TIMER_TICK_SECONDS times this. */
+	private static final int TIMER_WHEEL_BUCKETS = 512;
+	/** Maximum number of ground blocks of unloaded chunks kept for reuse. */
+	private static final int BLOCK_POOL_LIMIT = 1024;
+	/** Maximum number of chunk ground images kept, least recently used dropped first. */
+	private static final int TERRAIN_IMAGE_CACHE_CHUNKS = 16;
+	/** Number of clouds in flight, i.e.&nbsp;how cloudy this run's sky is. */
+	private static final int CLOUD_COUNT = 24;
 	/**
 	 * The Flora object that manages the trees and other flora in the game.
 	 */
@@ -46,6 +82,10 @@ public class PepseGameManager extends GameManager {
 	 * The Terrain object that represents the ground blocks in the game.
 	 */
 	private Terrain terrain;
+	/**
+	 * Cached view of the terrain surface shared by terrain, flora and avatar placement.
+	 */
+	private CachedGroundHeightProvider groundHeights;
 	private Avatar avatar;
 
 	/**
@@ -92,22 +132,21 @@ public class PepseGameManager extends GameManager {
 		// The seed is made once per run and determines the objects location
 		int seed = new Random().nextInt();
 		//int seed = 1000;
-		this.terrain = new Terrain(windowDimensions, seed);
-		List<Block> groundBlocks = terrain.createInRange(0, (int) windowDimensions.x());
-		for (Block block : groundBlocks) {
-			this.gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
-		}
-
-		// 3. Create Night overlay (30-second cycle)
-		float cycleLength = LIFE_CYCLE;
-		GameObject nightOverlay = Night.create(windowDimensions, cycleLength);
+		this.terrain = new Terrain(windowDimensions, seed, TERRAIN_NOISE_MODE);
+		terrain.useNoiseBackend(TERRAIN_NOISE_BACKEND);
+		this.groundHeights = new CachedGroundHeightProvider(terrain, HEIGHT_CACHE_COLUMNS);
+
+		// 3. Create the world clock (30-second cycle) and the Night overlay it darkens
+		WorldClock clock = new WorldClock(LIFE_CYCLE);
+		this.gameObjects().addGameObject(clock, Layer.BACKGROUND);
+		GameObject nightOverlay = Night.create(windowDimensions, clock);
 		this.gameObjects().addGameObject(nightOverlay, Layer.FOREGROUND);
 
-		// 4. Create Sun and SunHalo
-		GameObject sun = Sun.create(windowDimensions, cycleLength);
+		// 4. Create Sun and SunHalo, both moved by the same clock
+		GameObject sun = Sun.create(windowDimensions, clock);
 		this.gameObjects().addGameObject(sun, Layer.BACKGROUND);
 
-		GameObject sunHalo = SunHalo.create(sun);
+		GameObject sunHalo = SunHalo.create(sun, clock);
 		this.gameObjects().addGameObject(sunHalo, Layer.BACKGROUND);
 
 		addAvatar(inputListener,imageReader);
@@ -116,11 +155,22 @@ public class PepseGameManager extends GameManager {
 		GameObject energyBar = EnergyIndicator.create(avatar);
 		this.gameObjects().addGameObject(energyBar, Layer.BACKGROUND);
 
-		// 7. Create Cloud (which will rain when avatar jumps underneath)
-		Cloud.create(windowDimensions, this.gameObjects(), avatar);
-
-		// 8. Plant trees randomly across the terrain
-		addTrees(windowDimensions,  seed);
+		// 7. Create the clouds (which will rain when avatar jumps underneath)
+		//    their rain falls in the world and lands on the terrain surface
+		WeatherSystem.create(windowDimensions, this.gameObjects(), avatar, seed, CLOUD_COUNT,
+				groundHeights, () -> camera().getTopLeftCorner());
+
+		// 8. Prepare the flora that plants trees in every generated chunk,
+		//    the system that sways their leaves near the camera
+		//    and the timer wheel that respawns their fruit
+		float halfWidth = windowDimensions.x() / 2f;
+		LeafSwaySystem leafSway = new LeafSwaySystem(
+				() -> camera().getCenter().x() - halfWidth,
+				() -> camera().getCenter().x() + halfWidth);
+		this.gameObjects().addGameObject(leafSway, Layer.BACKGROUND);
+		TimerWheel timers = new TimerWheel(TIMER_TICK_SECONDS, TIMER_WHEEL_BUCKETS);
+		this.gameObjects().addGameObject(timers, Layer.BACKGROUND);
+		this.flora = new Flora(groundHeights, seed, leafSway, timers);
 		/* (1) build camera exactly as § 9.1 */
 		Camera camera = new Camera(
 				avatar, Vector2.ZERO,
@@ -135,39 +185,16 @@ public class PepseGameManager extends GameManager {
 		);
 
 	}
-	/**
-	 * Adds trees to the game world by randomly planting them across the terrain.
-	 *
-	 * @param windowDimensions The dimensions of the game window,
-	 *                           used to determine the range for planting trees.
-	 * @param seed             A random seed used to ensure consistent tree placement across game runs.
-	 */
-	private void addTrees(Vector2 windowDimensions, int seed) {
-        //Plant trees randomly across the terrain
-		int startX = 0;
-		int endX   = (int) windowDimensions.x();
-
-		this.flora = new Flora(terrain::groundHeightAt, seed);
-
-		/* ---- declare with the new type ---- */
-		List<Flora.LayeredObject> floraObjects = flora.createInRange(startX, endX);
-
-		/* ---- add each object to its preferred layer ---- */
-		for (Flora.LayeredObject lo : floraObjects) {
-			gameObjects().addGameObject(lo.obj(), lo.layer());
-
-		}
-
-	}
 /**
 	 * Adds an InfiniteWorldManager to the game,
  * which manages the dynamic loading and unloading of terrain blocks
-	 * and flora as the camera moves.
+	 * and flora as the camera moves. The initial range is built by the
+	 * manager itself so that it can be unloaded like any other chunk.
 	 *
 	 * @param windowController The WindowController used to get the window dimensions for camera calcs.
 	 * @param camera           The Camera that tracks the avatar's position.
-	 * @param initialMinX     The initial minimum X coordinate of the terrain range already built.
-	 * @param initialMaxX     The initial maximum X coordinate of the terrain range already built.
+	 * @param initialMinX     The minimum X coordinate of the range that must exist on the first frame.
+	 * @param initialMaxX     The maximum X coordinate of the range that must exist on the first frame.
 	 */
 	private void addIninityWorld(WindowController windowController,
 	                            Camera camera,
@@ -176,19 +203,21 @@ public class PepseGameManager extends GameManager {
 		float halfW= windowController.getWindowDimensions().x() / 2f;
 		Supplier<Float> camLeft  = () -> camera.getCenter().x() - halfW;
 		Supplier<Float> camRight = () -> camera.getCenter().x() + halfW;
+		Supplier<Float> avatarVelocityX = () -> avatar.getVelocity().x();
 
-		BiConsumer<Integer,Integer> onRangeNeeded = (minX, maxX) -> {
-			List<Block> ground = terrain.createInRange(minX,maxX);
-			ground.forEach(b -> gameObjects().addGameObject(b, Layer.STATIC_OBJECTS));
-
-			flora.createInRange(minX,maxX).forEach(lo ->
-					gameObjects().addGameObject(lo.obj(), lo.layer()));
-		};
+		BlockPool blockPool = new BlockPool(BLOCK_POOL_LIMIT);
+		terrain.useBlockPool(blockPool);
+		WorldGenerator generator = new WorldGenerator(terrain, groundHeights, flora,
+				new TerrainImageCache(TERRAIN_IMAGE_CACHE_CHUNKS), WORLD_GEN_THREADS);
+		generator.useChunkStore(new ChunkStore(flora));
+		MaterializationQueue materializer = new MaterializationQueue(generator, gameObjects(),
+				MATERIALIZE_OBJECTS_PER_FRAME, MATERIALIZE_NANOS_PER_FRAME, blockPool);
 
 		/* (3) add the manager itself */
 		InfiniteWorldManager mgr = new InfiniteWorldManager(
-				camLeft, camRight, onRangeNeeded,
-				/*initial range we already built:*/ initialMinX, initialMaxX
+				camLeft, camRight, avatarVelocityX, generator, materializer,
+				/*range needed on the first frame:*/ initialMinX, initialMaxX,
+				UNLOAD_DISTANCE
 		);
 		gameObjects().addGameObject(mgr, Layer.BACKGROUND);
 
@@ -196,7 +225,7 @@ public class PepseGameManager extends GameManager {
 	private void addAvatar(UserInputListener inputListener,
 	                       ImageReader imageReader)  {
 		final int LEFT_MARGIN_X = Block.SIZE * 2;
-		float groundY = terrain.groundHeightAt(LEFT_MARGIN_X);
+		float groundY = groundHeights.groundHeightAt(LEFT_MARGIN_X);
 		float avatarHeight = Avatar.SIZE;
 		Vector2 avatarPos = new Vector2(LEFT_MARGIN_X, groundY - avatarHeight);
 		 avatar = new Avatar(avatarPos, inputListener, imageReader);
@@ -2,14 +2,26 @@ package pepse.pepse.util;
 
 import java.awt.*;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides procedurally-generated colors around a pivot.
+ *
+ * <p>Besides the random variants, {@link #approximateColor(Color, int, long)}
+ * picks a variation by key, for colours that must be stable per world
+ * coordinate. The variations of each base colour and delta are computed once
+ * into a small palette of shared {@link Color} objects, so that lookup
+ * allocates nothing and is safe from any thread.</p>
  * @author Dan Nirel
  */
 public final class ColorSupplier {
     private static final int DEFAULT_COLOR_DELTA = 10;
+    /** Number of precomputed variations per base colour and delta. */
+    private static final int PALETTE_SIZE = 64;
     private final static Random random = new Random();
+    /** Palettes by base colour, then by delta. */
+    private static final ConcurrentHashMap<Color, ConcurrentHashMap<Integer, Color[]>> palettes =
+            new ConcurrentHashMap<>();
 
     /**
      * Returns a color similar to baseColor, with a default delta.
@@ -64,6 +76,47 @@ public final class ColorSupplier {
                 randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
     }
 
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta,
+     * chosen by a key instead of at random: the same key always gives the same
+     * (shared) Color object. Safe to call from any thread.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the chosen color and the base color.
+     * @param seedKey A {@link CoordinateRandom} key, e.g. of the block being colored.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, long seedKey) {
+        return palette(baseColor, colorDelta)[CoordinateRandom.nextInt(seedKey, 0, PALETTE_SIZE)];
+    }
+
+    /** Returns the variations of baseColor, computing them on first use. */
+    private static Color[] palette(Color baseColor, int colorDelta) {
+        ConcurrentHashMap<Integer, Color[]> byDelta = palettes.get(baseColor);
+        if (byDelta == null) {
+            byDelta = palettes.computeIfAbsent(baseColor, color -> new ConcurrentHashMap<>());
+        }
+        Color[] palette = byDelta.get(colorDelta);
+        if (palette == null) {
+            palette = byDelta.computeIfAbsent(colorDelta, delta -> buildPalette(baseColor, delta));
+        }
+        return palette;
+    }
+
+    /** Draws the palette from a key of the base colour itself, so it is the same in every run. */
+    private static Color[] buildPalette(Color baseColor, int colorDelta) {
+        long key = CoordinateRandom.child(baseColor.getRGB(), colorDelta);
+        int range = 2 * colorDelta + 1;
+        Color[] palette = new Color[PALETTE_SIZE];
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            palette[i] = new Color(
+                    clip(baseColor.getRed() - colorDelta + CoordinateRandom.nextInt(key, 3 * i, range)),
+                    clip(baseColor.getGreen() - colorDelta + CoordinateRandom.nextInt(key, 3 * i + 1, range)),
+                    clip(baseColor.getBlue() - colorDelta + CoordinateRandom.nextInt(key, 3 * i + 2, range)));
+        }
+        return palette;
+    }
+
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
@@ -73,6 +126,11 @@ public final class ColorSupplier {
      */
     private static int randomChannelInRange(int min, int max) {
         int channel = random.nextInt(max-min+1) + min;
+        return clip(channel);
+    }
+
+    /** Clips a channel value to [0,255]. */
+    private static int clip(int channel) {
         return Math.min(255, Math.max(channel, 0));
     }
 }
@@ -0,0 +1,101 @@
+package pepse.pepse.util;
+
+/**
+ * A stateless, counter-based random generator for world generation.
+ *
+ * <p>Every value is a pure function of a 64-bit <em>key</em> and a
+ * <em>draw index</em>: draw {@code n} of a key is the {@code n}-th output of a
+ * SplitMix64 sequence started at that key, computed directly instead of
+ * stepping through draws {@code 0..n-1}. Keys are derived from world
+ * coordinates with {@link #key(int, int, int)} and split further with
+ * {@link #child(long, int)}, so a decision depends only on where it is made,
+ * never on what was generated before it. Nothing is allocated and nothing is
+ * shared, so any thread may draw at any time.</p>
+ *
+ * <p>Typical use keeps the draw index in a local variable:</p>
+ * <pre>
+ *     long key = CoordinateRandom.key(worldSeed, x, SALT);
+ *     int draw = 0;
+ *     float a = CoordinateRandom.nextFloat(key, draw++);
+ *     int   b = CoordinateRandom.nextInt(key, draw++, 4);
+ * </pre>
+ * @author Noa
+ */
+public final class CoordinateRandom {
+    /** Step between consecutive draws: the SplitMix64 increment (odd, so all 2^64 states are visited). */
+    private static final long DRAW_GAMMA = 0x9E3779B97F4A7C15L;
+    /** Step between sibling keys; a different odd constant keeps children apart from draws. */
+    private static final long CHILD_GAMMA = 0xD1B54A32D192ED03L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    /**
+     * Derives the key of a world coordinate.
+     *
+     * @param worldSeed the world seed.
+     * @param x         the coordinate, typically a block column's x.
+     * @param salt      distinguishes independent decisions made at the same coordinate.
+     * @return the key of {@code (worldSeed, x, salt)}.
+     */
+    public static long key(int worldSeed, int x, int salt) {
+        return child(child(mix(worldSeed), x), salt);
+    }
+
+    /**
+     * Derives an independent key from another one, e.g.&nbsp;one per part of a tree.
+     *
+     * @param key   the parent key.
+     * @param index distinguishes the children of one parent.
+     * @return the key of child {@code index}.
+     */
+    public static long child(long key, int index) {
+        return mix(key + (index + 1L) * CHILD_GAMMA);
+    }
+
+    /**
+     * @param key  the key to draw from.
+     * @param draw the draw index.
+     * @return 64 uniformly distributed random bits.
+     */
+    public static long nextLong(long key, int draw) {
+        return mix(key + (draw + 1L) * DRAW_GAMMA);
+    }
+
+    /**
+     * @param key  the key to draw from.
+     * @param draw the draw index.
+     * @return a uniformly distributed double in [0, 1).
+     */
+    public static double nextDouble(long key, int draw) {
+        return (nextLong(key, draw) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * @param key  the key to draw from.
+     * @param draw the draw index.
+     * @return a uniformly distributed float in [0, 1).
+     */
+    public static float nextFloat(long key, int draw) {
+        return (nextLong(key, draw) >>> 40) * FLOAT_UNIT;
+    }
+
+    /**
+     * @param key   the key to draw from.
+     * @param draw  the draw index.
+     * @param bound the exclusive upper bound; must be positive.
+     * @return an int in [0, bound).
+     */
+    public static int nextInt(long key, int draw, int bound) {
+        return (int) (((nextLong(key, draw) >>> 32) * bound) >>> 32);
+    }
+
+    /** The SplitMix64 output function (Stafford's mix 13). */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private CoordinateRandom() {
+    }
+}
@@ -0,0 +1,88 @@
+package pepse.pepse.util;
+
+import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out shared, immutable colour-fill renderables.
+ *
+ * <p>A {@link RectangleRenderable} or {@link OvalRenderable} only holds its
+ * colour; position, size, rotation and opacity come from the game object
+ * drawing it. So every object filled with the same shape and colour can draw
+ * through one instance instead of allocating its own. Lookups are keyed by
+ * shape and colour ({@link Color} compares and hashes by RGBA value) and
+ * allocate nothing on a hit.</p>
+ *
+ * <p>The number of distinct entries is bounded by {@link #MAX_ENTRIES}, so a
+ * stream of random colours cannot grow the cache forever: once it is full,
+ * unseen colours get a fresh instance that is not kept. Lookups are
+ * synchronized, so plans built on worker threads may use the cache too.</p>
+ * @author Noa
+ */
+public final class RenderableCache {
+    /** Maximum number of distinct shape/colour pairs kept, over all shapes. */
+    public static final int MAX_ENTRIES = 1024;
+
+    private static final Map<Color, RectangleRenderable> rectangles = new HashMap<>();
+    private static final Map<Color, OvalRenderable> ovals = new HashMap<>();
+    private static long hits;
+    private static long misses;
+
+    /**
+     * @param color the fill colour.
+     * @return a rectangle filled with {@code color}, shared while the cache has room.
+     */
+    public static synchronized RectangleRenderable rectangle(Color color) {
+        RectangleRenderable renderable = rectangles.get(color);
+        if (renderable != null) {
+            hits++;
+            return renderable;
+        }
+        misses++;
+        renderable = new RectangleRenderable(color);
+        if (size() < MAX_ENTRIES) {
+            rectangles.put(color, renderable);
+        }
+        return renderable;
+    }
+
+    /**
+     * @param color the fill colour.
+     * @return an oval filled with {@code color}, shared while the cache has room.
+     */
+    public static synchronized OvalRenderable oval(Color color) {
+        OvalRenderable renderable = ovals.get(color);
+        if (renderable != null) {
+            hits++;
+            return renderable;
+        }
+        misses++;
+        renderable = new OvalRenderable(color);
+        if (size() < MAX_ENTRIES) {
+            ovals.put(color, renderable);
+        }
+        return renderable;
+    }
+
+    /** @return number of lookups answered with a cached instance. */
+    public static synchronized long hits() {
+        return hits;
+    }
+
+    /** @return number of lookups that had to create an instance. */
+    public static synchronized long misses() {
+        return misses;
+    }
+
+    /** @return number of distinct shape/colour pairs currently cached. */
+    public static synchronized int size() {
+        return rectangles.size() + ovals.size();
+    }
+
+    private RenderableCache() {
+    }
+}
@@ -25,7 +25,19 @@ public class Block extends GameObject {
 	 * @param renderable    The renderable to render the block.
 	 */
 	public Block(Vector2 topLeftCorner, Renderable renderable) {
-		super(topLeftCorner, Vector2.ONES.mult(SIZE), renderable);
+		this(topLeftCorner, Vector2.ONES.mult(SIZE), renderable);
+	}
+
+	/**
+	 * Constructs a new immovable block with arbitrary dimensions, e.g.&nbsp;a whole
+	 * terrain column merged into a single collider.
+	 *
+	 * @param topLeftCorner The position of the top-left corner of the block.
+	 * @param dimensions    The width and height of the block in pixels.
+	 * @param renderable    The renderable to render the block.
+	 */
+	public Block(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+		super(topLeftCorner, dimensions, renderable);
 		physics().preventIntersectionsFromDirection(Vector2.ZERO);
 		physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
 	}
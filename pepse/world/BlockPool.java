@@ -0,0 +1,117 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Recycles terrain {@link Block}s between strips that are unloaded and
+ * strips that are built later.
+ *
+ * <p>Streaming the world removes and rebuilds the same kinds of blocks over
+ * and over. Instead of leaving each removed block to the garbage collector,
+ * it is handed back with {@link #release(Block)} and the next
+ * {@link #acquire} moves it to its new place, size, renderable and tag. At
+ * most {@code maxIdle} blocks wait in the pool; anything released beyond
+ * that high-water mark is dropped, so a long walk in one direction never
+ * hoards memory. Once streaming reaches a steady state almost every block is
+ * a reused one, which {@link #allocated()} and {@link #reused()} make
+ * visible.</p>
+ *
+ * <p>Not thread-safe: blocks are acquired and released on the game thread
+ * only.</p>
+ * @author Noa
+ */
+public class BlockPool {
+
+	private final int maxIdle;
+	private final ArrayDeque<Block> idleBlocks = new ArrayDeque<>();
+	/** The same blocks as {@link #idleBlocks}, to catch a block released twice. */
+	private final Set<Block> idleSet = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long allocated;
+	private long reused;
+	private long dropped;
+
+	/**
+	 * @param maxIdle maximum number of released blocks kept for reuse
+	 */
+	public BlockPool(int maxIdle) {
+		if (maxIdle < 0) {
+			throw new IllegalArgumentException("maxIdle must not be negative: " + maxIdle);
+		}
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Returns a block with the given bounds, renderable and tag: a released
+	 * one if available, a new one otherwise.
+	 *
+	 * @param topLeftCorner position of the top-left corner of the block
+	 * @param dimensions    width and height of the block in pixels
+	 * @param renderable    renderable the block is drawn with
+	 * @param tag           tag of the block
+	 * @return a block ready to be added to the scene
+	 */
+	public Block acquire(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, String tag) {
+		Block block = idleBlocks.pollLast();   // most recently used first, still warm in cache
+		if (block == null) {
+			block = new Block(topLeftCorner, dimensions, renderable);
+			allocated++;
+		} else {
+			idleSet.remove(block);
+			block.setTopLeftCorner(topLeftCorner);
+			block.setDimensions(dimensions);
+			block.renderer().setRenderable(renderable);
+			reused++;
+		}
+		block.setTag(tag);
+		return block;
+	}
+
+	/**
+	 * Takes back a block that was removed from the scene. A block that is
+	 * already waiting in the pool is ignored.
+	 *
+	 * @param block a block that is no longer in any layer
+	 */
+	public void release(Block block) {
+		if (idleSet.contains(block)) {
+			return;
+		}
+		if (idleBlocks.size() >= maxIdle) {
+			dropped++;   // left to the garbage collector
+			return;
+		}
+		idleSet.add(block);
+		idleBlocks.addLast(block);
+	}
+
+	/** @return number of blocks created because the pool was empty */
+	public long allocated() {
+		return allocated;
+	}
+
+	/** @return number of blocks handed out again after a release */
+	public long reused() {
+		return reused;
+	}
+
+	/** @return number of released blocks discarded because the pool was full */
+	public long dropped() {
+		return dropped;
+	}
+
+	/** @return number of blocks currently waiting for reuse */
+	public int idle() {
+		return idleBlocks.size();
+	}
+
+	/** @return maximum number of blocks kept waiting for reuse */
+	public int maxIdle() {
+		return maxIdle;
+	}
+}
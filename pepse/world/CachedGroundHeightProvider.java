@@ -0,0 +1,162 @@
+package pepse.world;
+
+import java.util.Arrays;
+
+/**
+ * A {@link GroundHeightProvider} decorator that remembers the surface height
+ * of recently queried block columns.
+ *
+ * <p>The terrain surface is asked for the same columns over and over: once
+ * while building the ground, again for every tree planted there and again
+ * when placing the avatar. Each answer costs a full octave loop of noise, so
+ * this class keeps up to {@code capacity} columns in a direct-mapped table of
+ * two primitive arrays (column key and height), indexed by the column modulo
+ * the capacity. A column can only live in its one slot and replaces whatever
+ * column shares it, i.e.&nbsp;one a multiple of {@code capacity} columns
+ * away; any {@code capacity} neighbouring columns fit side by side. Nothing is
+ * boxed and nothing is allocated per query.</p>
+ *
+ * <p>Only <em>x</em> values that lie exactly on a column edge are cached;
+ * anything else is passed straight to the wrapped provider. A cached value is
+ * the very float the wrapped provider returned, so results are bit-identical
+ * to the uncached path. All methods are safe to call from the world
+ * generation workers and the game thread at the same time; heights are
+ * computed outside the lock.</p>
+ * @author Noa
+ */
+public class CachedGroundHeightProvider implements GroundHeightProvider {
+
+	/** Key stored in slots that hold no column yet. */
+	private static final int EMPTY = Integer.MIN_VALUE;
+
+	private final GroundHeightProvider delegate;
+	private final int[] columns;
+	private final float[] heights;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param delegate provider computing the real heights
+	 * @param capacity number of block columns kept in the cache
+	 */
+	public CachedGroundHeightProvider(GroundHeightProvider delegate, int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.delegate = delegate;
+		this.columns  = new int[capacity];
+		this.heights  = new float[capacity];
+		Arrays.fill(columns, EMPTY);
+	}
+
+	/**
+	 * Returns the cached height of the column at {@code x}, computing and
+	 * storing it on a miss.
+	 *
+	 * @param x world-space x-coordinate
+	 * @return  y-coordinate of the topmost ground block at {@code x}
+	 */
+	@Override
+	public float groundHeightAt(float x) {
+		/* x / SIZE is rounded, so check the column edge itself, exactly, in double */
+		int column = (int) Math.floor(x / Block.SIZE);
+		if ((double) column * Block.SIZE != x || column == EMPTY) {
+			return delegate.groundHeightAt(x);   // not on the column grid
+		}
+
+		int slot = Math.floorMod(column, columns.length);
+		synchronized (this) {
+			if (columns[slot] == column) {
+				hits++;
+				return heights[slot];
+			}
+			misses++;
+		}
+
+		/* compute outside the lock so workers do not queue behind each other */
+		float height = delegate.groundHeightAt(x);
+		synchronized (this) {
+			columns[slot] = column;
+			heights[slot] = height;
+		}
+		return height;
+	}
+
+	/**
+	 * Answers a run of block columns from the cache where it can, and
+	 * computes each stretch of uncached columns with one batch call to the
+	 * wrapped provider, caching the results.
+	 *
+	 * @param startX world-space x-coordinate of the first column
+	 * @param step   distance between neighbouring columns, in pixels
+	 * @param count  number of columns
+	 * @param out    receives the heights; must hold at least {@code count} values
+	 */
+	@Override
+	public void groundHeightsAt(int startX, int step, int count, float[] out) {
+		if (step != Block.SIZE || startX % Block.SIZE != 0) {
+			delegate.groundHeightsAt(startX, step, count, out);   // not on the column grid
+			return;
+		}
+		int firstColumn = startX / Block.SIZE;
+
+		boolean[] missing = new boolean[count];
+		int missed = 0;
+		synchronized (this) {
+			for (int i = 0; i < count; i++) {
+				int slot = Math.floorMod(firstColumn + i, columns.length);
+				if (columns[slot] == firstColumn + i) {
+					out[i] = heights[slot];
+				} else {
+					missing[i] = true;
+					missed++;
+				}
+			}
+			hits += count - missed;
+			misses += missed;
+		}
+		if (missed == 0) {
+			return;
+		}
+
+		/* one batch per stretch of uncached columns, computed outside the lock */
+		float[] stretch = new float[missed];
+		for (int i = 0; i < count; ) {
+			if (!missing[i]) {
+				i++;
+				continue;
+			}
+			int end = i + 1;
+			while (end < count && missing[end]) {
+				end++;
+			}
+			delegate.groundHeightsAt(startX + i * step, step, end - i, stretch);
+			System.arraycopy(stretch, 0, out, i, end - i);
+			i = end;
+		}
+		synchronized (this) {
+			for (int i = 0; i < count; i++) {
+				if (missing[i]) {
+					int slot = Math.floorMod(firstColumn + i, columns.length);
+					columns[slot] = firstColumn + i;
+					heights[slot] = out[i];
+				}
+			}
+		}
+	}
+
+	/** @return number of column queries answered from the cache */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/** @return number of column queries that had to be computed */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/** @return number of block columns the cache can hold */
+	public int capacity() {
+		return columns.length;
+	}
+}
@@ -0,0 +1,133 @@
+package pepse.world;
+
+import pepse.world.pepse.world.trees.Flora;
+import pepse.world.pepse.world.trees.TreePlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers every generated strip of the world in a compact primitive form,
+ * so the world is defined by this store rather than by the game objects
+ * currently in the scene.
+ *
+ * <p>A strip is recorded once, right after it is planned: the top block row
+ * of each column as a {@code short}, and for each tree its column, surface
+ * height, trunk height and two 9-bit masks telling which foliage tiles hold
+ * a leaf and which a fruit. That is a few hundred bytes per chunk, against
+ * the thousands of objects its game objects take. When a chunk that was
+ * unloaded comes back into view, {@link #load(int)} rebuilds its
+ * {@link StripData} from these numbers: no noise is evaluated and no
+ * placement decision is drawn again, only the leaves' sway and the fruit
+ * colours are re-read from their counter-based keys.</p>
+ *
+ * <p>Strips are stored and loaded from the world generation workers and the
+ * game thread alike; the store is safe to use from any thread. Nothing is
+ * ever evicted, the whole explored world stays recorded.</p>
+ * @author Roni
+ */
+public class ChunkStore {
+
+	/** One recorded strip; arrays are never modified after construction. */
+	private static final class Chunk {
+		private final int minX;
+		private final int maxX;
+		private final int startX;
+		private final short[] topRows;
+		/* --- one entry per tree --- */
+		private final short[] treeColumns;
+		private final float[] treeGroundY;
+		private final byte[] trunkHeights;
+		private final short[] leafMasks;
+		private final short[] fruitMasks;
+
+		private Chunk(StripData strip) {
+			Terrain.GroundPlan ground = strip.ground();
+			this.minX   = strip.minX();
+			this.maxX   = strip.maxX();
+			this.startX = ground.startX();
+			this.topRows = new short[ground.topBlockY().length];
+			for (int i = 0; i < topRows.length; i++) {
+				topRows[i] = (short) (ground.topBlockY()[i] / Block.SIZE);
+			}
+
+			List<TreePlan> trees = strip.trees();
+			this.treeColumns  = new short[trees.size()];
+			this.treeGroundY  = new float[trees.size()];
+			this.trunkHeights = new byte[trees.size()];
+			this.leafMasks    = new short[trees.size()];
+			this.fruitMasks   = new short[trees.size()];
+			for (int t = 0; t < trees.size(); t++) {
+				TreePlan tree = trees.get(t);
+				treeColumns[t]  = (short) (((int) tree.x() - startX) / Block.SIZE);
+				treeGroundY[t]  = tree.groundY();
+				trunkHeights[t] = (byte) tree.trunkHeight();
+				leafMasks[t]    = (short) tree.leafMask();
+				fruitMasks[t]   = (short) tree.fruitMask();
+			}
+		}
+	}
+
+	private final Flora flora;
+	private final ConcurrentHashMap<Integer, Chunk> chunks = new ConcurrentHashMap<>();
+
+	/**
+	 * @param flora flora that planned the recorded trees; rebuilds their plans on load
+	 */
+	public ChunkStore(Flora flora) {
+		this.flora = flora;
+	}
+
+	/**
+	 * Records a freshly planned strip; a strip already recorded is kept as is.
+	 *
+	 * @param strip the planned strip
+	 */
+	public void save(StripData strip) {
+		for (int topBlockY : strip.ground().topBlockY()) {
+			if (topBlockY / Block.SIZE != (short) (topBlockY / Block.SIZE)) {
+				return;   // too deep for a short row; the strip is simply planned again
+			}
+		}
+		chunks.putIfAbsent(strip.index(), new Chunk(strip));
+	}
+
+	/**
+	 * Rebuilds a recorded strip.
+	 *
+	 * @param index chunk index of the strip
+	 * @return the strip as it was planned, or {@code null} if it was never recorded
+	 */
+	public StripData load(int index) {
+		Chunk chunk = chunks.get(index);
+		if (chunk == null) {
+			return null;
+		}
+		int[] topBlockY = new int[chunk.topRows.length];
+		for (int i = 0; i < topBlockY.length; i++) {
+			topBlockY[i] = chunk.topRows[i] * Block.SIZE;
+		}
+		List<TreePlan> trees = new ArrayList<>(chunk.treeColumns.length);
+		for (int t = 0; t < chunk.treeColumns.length; t++) {
+			trees.add(flora.replant(chunk.startX + chunk.treeColumns[t] * Block.SIZE,
+					chunk.treeGroundY[t], chunk.trunkHeights[t],
+					chunk.leafMasks[t], chunk.fruitMasks[t]));
+		}
+		return new StripData(index, chunk.minX, chunk.maxX,
+				new Terrain.GroundPlan(chunk.startX, topBlockY), trees);
+	}
+
+	/**
+	 * @param index chunk index of a strip
+	 * @return whether that strip is recorded
+	 */
+	public boolean contains(int index) {
+		return chunks.containsKey(index);
+	}
+
+	/** @return number of recorded strips */
+	public int size() {
+		return chunks.size();
+	}
+}
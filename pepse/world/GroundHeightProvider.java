@@ -22,4 +22,21 @@ public interface GroundHeightProvider {
 	 * @return  y-coordinate of the topmost ground block at {@code x}
 	 */
 	float groundHeightAt(float x);
+
+	/**
+	 * Writes the surface heights of {@code count} evenly spaced columns into
+	 * {@code out}: {@code out[i]} equals {@code groundHeightAt(startX + i * step)}.
+	 * Implementations may override this to share work between neighbouring
+	 * columns, but must keep the results identical.
+	 *
+	 * @param startX world-space x-coordinate of the first column
+	 * @param step   distance between neighbouring columns, in pixels
+	 * @param count  number of columns
+	 * @param out    receives the heights; must hold at least {@code count} values
+	 */
+	default void groundHeightsAt(int startX, int step, int count, float[] out) {
+		for (int i = 0; i < count; i++) {
+			out[i] = groundHeightAt(startX + i * step);
+		}
+	}
 }
@@ -0,0 +1,106 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * The whole ground of one chunk, drawn as a single image instead of one
+ * rectangle per {@link Block}.
+ *
+ * <p>The image comes from {@link Terrain#rasterize(Terrain.GroundPlan)}, which
+ * stores one pixel per block cell; it is stretched by {@link Block#SIZE} with
+ * nearest-neighbour sampling, so it looks exactly like the blocks it replaces.
+ * It is built lazily on the first draw and shared through a
+ * {@link TerrainImageCache}, so a chunk that comes back soon after being
+ * unloaded reuses its image.</p>
+ *
+ * <p>The object only draws: it has no collider and lives in {@link #LAYER},
+ * which collides with nothing. The avatar stands on the strip's invisible
+ * column blocks instead.</p>
+ * @author Noa
+ */
+public class GroundImage extends GameObject implements LayerProvider, Unloadable {
+
+	/** Drawn above the sky and below the static objects; collides with nothing. */
+	public static final int LAYER = Layer.STATIC_OBJECTS - 1;
+
+	private final Terrain terrain;
+	private final TerrainImageCache cache;
+	private final int chunkIndex;
+	private final Terrain.GroundPlan plan;
+	/** The image while this object is in the scene; the cache may drop its own copy. */
+	private BufferedImage image;
+
+	/**
+	 * @param topLeft    world-space top-left corner of the strip's highest block
+	 * @param dimensions width and height of the strip's ground, in pixels
+	 * @param terrain    terrain that rasterizes the strip
+	 * @param cache      cache the image is shared through
+	 * @param chunkIndex index of the chunk, the cache key
+	 * @param plan       the strip's ground
+	 */
+	GroundImage(Vector2 topLeft, Vector2 dimensions, Terrain terrain, TerrainImageCache cache,
+				int chunkIndex, Terrain.GroundPlan plan) {
+		super(topLeft, dimensions, null);
+		this.terrain    = terrain;
+		this.cache      = cache;
+		this.chunkIndex = chunkIndex;
+		this.plan       = plan;
+		renderer().setRenderable(new ImageRenderable());
+	}
+
+	/** Lets go of the image; the cache decides whether it is kept. */
+	@Override
+	public void onUnload() {
+		image = null;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int defaultLayer() {
+		return LAYER;
+	}
+
+	private BufferedImage image() {
+		if (image == null) {
+			image = cache.get(chunkIndex);
+			if (image == null) {
+				image = terrain.rasterize(plan);
+				cache.put(chunkIndex, image);
+			}
+		}
+		return image;
+	}
+
+	/** Stretches the one-pixel-per-block image over the strip. */
+	private final class ImageRenderable implements Renderable {
+		@Override
+		public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+						   double degreesCounterClockwise, boolean isFlippedHorizontally,
+						   boolean isFlippedVertically, double opaqueness) {
+			Composite composite = g.getComposite();
+			Object interpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+			if (opaqueness < 1) {
+				g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+			}
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+
+			g.drawImage(image(), Math.round(topLeftCorner.x()), Math.round(topLeftCorner.y()),
+					Math.round(dimensions.x()), Math.round(dimensions.y()), null);
+
+			if (interpolation != null) {
+				g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+			}
+			g.setComposite(composite);
+		}
+	}
+}
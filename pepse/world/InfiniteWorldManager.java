@@ -7,14 +7,39 @@ import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.util.Vector2;
 
-import java.util.function.BiConsumer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 
 /**
- * Keeps expanding the world: every update it checks the camera window,
- * and if it discovers that the user is approaching an un-generated area,
- * it calls {@code onRangeNeeded.accept(minX,maxX)} to let Terrain/Flora
- * build that strip and insert its objects.
+ * Keeps the world filled around the camera as a sliding window of
+ * {@link WorldChunk}s: every update it checks the camera window, builds every
+ * missing chunk that the view (plus a small buffer) overlaps, and removes
+ * chunks that drifted more than {@code unloadDistance} pixels past the camera
+ * edges.
+ *
+ * <p>Chunks within {@link #PREFETCH_DISTANCE} of the view are requested ahead
+ * of need from the {@link WorldGenerator}, which plans them on worker threads;
+ * finished strips are handed to a {@link MaterializationQueue} that inserts
+ * them column by column within a per-frame budget. If the view ever reaches a
+ * chunk whose plan or columns have not arrived yet, they are built right away
+ * so the avatar never runs into missing ground.</p>
+ *
+ * <p>The prefetch window follows the avatar's horizontal velocity: in the
+ * direction of travel it reaches {@link #PREFETCH_SECONDS} of movement
+ * further ahead, so faster movement requests proportionally more chunks in
+ * one go, while behind a moving avatar only the small {@link #BUFFER} is kept
+ * filled.</p>
+ *
+ * <p>Chunks are loaded as soon as they come within {@link #BUFFER} of the
+ * view but are only unloaded once they are {@code unloadDistance} away, so
+ * walking back and forth across a chunk border never rebuilds the same
+ * chunk every frame. The number of live objects therefore stays bounded by
+ * the view width plus twice the unload distance, no matter how far the
+ * avatar travels. Passing {@link #KEEP_ALL} restores the old grow-only
+ * behaviour.</p>
  * @author Roni
  */
 public class InfiniteWorldManager extends GameObject {
@@ -22,40 +47,75 @@ public class InfiniteWorldManager extends GameObject {
 	/** How far beyond the camera edge we keep the world filled (pixels). */
 	private static final int BUFFER = Block.SIZE * 2;
 
+	/** Number of block columns in a single chunk. */
+	private static final int BLOCK_BUFFER = 20;
+
+	/** Width of a single chunk (pixels). */
+	public static final int CHUNK_WIDTH = Block.SIZE * BLOCK_BUFFER;
+
+	/** How far beyond the camera edge chunks are requested from the background workers (pixels). */
+	private static final int PREFETCH_DISTANCE = CHUNK_WIDTH;
+
+	/** Seconds of travel, at the current speed, prefetched beyond {@link #PREFETCH_DISTANCE}. */
+	private static final float PREFETCH_SECONDS = 1.5f;
+
+	/** Below this horizontal speed (pixels/sec) the avatar counts as standing still. */
+	private static final float STILL_SPEED = 1f;
+
+	/** Unload distance that never unloads anything (grow-only mode). */
+	public static final int KEEP_ALL = Integer.MAX_VALUE;
+
 	/** --- callbacks provided by GameManager --- */
 	private final Supplier<Float> leftEdgeSupplier;
 	private final Supplier<Float> rightEdgeSupplier;
-	private final BiConsumer<Integer,Integer> onRangeNeeded;
+	private final Supplier<Float> velocitySupplier;
+	private final WorldGenerator generator;
+	private final MaterializationQueue materializer;
 
-	/** --- current generated bounds --- */
-	private int minGeneratedX;
-	private int maxGeneratedX;
-	private static final int BLOCK_BUFFER = 20;
+	/** --- sliding window state --- */
+	private final int unloadDistance;
+	private final TreeMap<Integer, WorldChunk> loadedChunks = new TreeMap<>();
+	private final Set<Integer> pendingChunks = new HashSet<>();
 
 	/**
-	 * Creates an InfiniteWorldManager that will
-	 * @param leftEdgeSupplier supplies the left edge of the camera view
+	 * Creates an InfiniteWorldManager and immediately builds every chunk
+	 * overlapping {@code [initialMinX, initialMaxX)}.
+	 *
+	 * @param leftEdgeSupplier  supplies the left edge of the camera view
 	 * @param rightEdgeSupplier supplies the right edge of the camera view
-	 * @param onRangeNeeded
-	 * @param initialMinX
-	 * @param initialMaxX
+	 * @param velocitySupplier  supplies the horizontal velocity of whatever the camera follows
+	 * @param generator         plans strips, in the background or on demand
+	 * @param materializer      inserts planned strips into, and removes chunks from, the scene
+	 * @param initialMinX       left bound of the range that must exist before the first frame
+	 * @param initialMaxX       right bound of the range that must exist before the first frame
+	 * @param unloadDistance    how far past a camera edge (pixels) a chunk must be before it
+	 *                          is unloaded; clamped to at least {@link #CHUNK_WIDTH}, or
+	 *                          {@link #KEEP_ALL} to never unload
 	 */
 	public InfiniteWorldManager(
 			Supplier<Float> leftEdgeSupplier,
 			Supplier<Float> rightEdgeSupplier,
-			BiConsumer<Integer,Integer> onRangeNeeded,
+			Supplier<Float> velocitySupplier,
+			WorldGenerator generator,
+			MaterializationQueue materializer,
 			int initialMinX,
-			int initialMaxX) {
+			int initialMaxX,
+			int unloadDistance) {
 		super(Vector2.ZERO, Vector2.ZERO, null);   // invisible object
 		this.leftEdgeSupplier  = leftEdgeSupplier;
 		this.rightEdgeSupplier = rightEdgeSupplier;
-		this.onRangeNeeded     = onRangeNeeded;
-		this.minGeneratedX     = initialMinX;
-		this.maxGeneratedX     = initialMaxX;
+		this.velocitySupplier  = velocitySupplier;
+		this.generator         = generator;
+		this.materializer      = materializer;
+		this.unloadDistance    = Math.max(unloadDistance, CHUNK_WIDTH);
+		loadRange(initialMinX, initialMaxX);
 	}
-/**
+
+	/**
+	 * Materializes strips finished by the workers, requests the next ones,
+	 * and unloads the chunks left far behind.
 	 *
-     * @return the default layer for this object, which is {@link Layer#BACKGROUND}.
+	 * @param dt time since the last frame (unused)
 	 */
 	@Override
 	public void update(float dt) {
@@ -63,18 +123,115 @@ public class InfiniteWorldManager extends GameObject {
 		float camLeft  = leftEdgeSupplier.get();
 		float camRight = rightEdgeSupplier.get();
 
-		/* 2. if we are close to the left edge – generate more leftward */
-		if (camLeft - BUFFER < minGeneratedX) {
-			int newMin = minGeneratedX - Block.SIZE * BLOCK_BUFFER; // grow by 20 blocks
-			onRangeNeeded.accept(newMin, minGeneratedX);
-			minGeneratedX = newMin;
+		/* 2. size the prefetch window from the current speed, mostly ahead of the avatar */
+		float velocityX = velocitySupplier.get();
+		float ahead  = PREFETCH_DISTANCE + Math.abs(velocityX) * PREFETCH_SECONDS;
+		float behind = Math.abs(velocityX) < STILL_SPEED ? PREFETCH_DISTANCE : BUFFER;
+		float prefetchLeft  = velocityX < 0 ? ahead : behind;
+		float prefetchRight = velocityX < 0 ? behind : ahead;
+
+		/* never unload what we are prefetching */
+		float leftLimit  = camLeft - Math.max((float) unloadDistance, prefetchLeft);
+		float rightLimit = camRight + Math.max((float) unloadDistance, prefetchRight);
+
+		/* 3. insert whatever the workers finished, then ask for what we will need soon */
+		drainReady(leftLimit, rightLimit);
+		requestRange(camLeft - prefetchLeft, camRight + prefetchRight);
+
+		/* 4. make sure the view plus a small buffer is covered, even if a worker is late */
+		loadRange(camLeft - BUFFER, camRight + BUFFER);
+
+		/* 5. spend this frame's budget on the queued columns nearest the camera */
+		materializer.run((camLeft + camRight) / 2f);
+
+		/* 6. drop whatever drifted far enough past either edge */
+		unloadOutside(leftLimit, rightLimit);
+	}
+
+	/** @return number of chunks currently in the scene */
+	public int loadedChunkCount() {
+		return loadedChunks.size();
+	}
+
+	/** @return number of game objects currently owned by loaded chunks */
+	public int liveObjectCount() {
+		int live = 0;
+		for (WorldChunk chunk : loadedChunks.values()) {
+			live += chunk.size();
+		}
+		return live;
+	}
+
+	/** @return number of chunks requested from the workers and not yet received */
+	public int pendingChunkCount() {
+		return pendingChunks.size();
+	}
+
+	/** Materializes every finished strip that is still wanted; discards the rest. */
+	private void drainReady(float leftLimit, float rightLimit) {
+		StripData strip;
+		while ((strip = generator.pollReady()) != null) {
+			pendingChunks.remove(strip.index());
+			boolean stale = loadedChunks.containsKey(strip.index())
+					|| strip.maxX() <= leftLimit || strip.minX() >= rightLimit;
+			if (!stale) {
+				loadChunk(strip);
+			}
+		}
+	}
+
+	/** Asks the workers for every chunk overlapping {@code [minX, maxX)} that is neither loaded nor pending. */
+	private void requestRange(float minX, float maxX) {
+		int first = firstChunk(minX);
+		int last  = lastChunk(maxX);
+		for (int i = first; i <= last; i++) {
+			if (!loadedChunks.containsKey(i) && pendingChunks.add(i)) {
+				generator.request(i, i * CHUNK_WIDTH, (i + 1) * CHUNK_WIDTH);
+			}
+		}
+	}
+
+	/**
+	 * Plans (on this thread) every missing chunk overlapping {@code [minX, maxX)}
+	 * and inserts every column of that range that is still queued.
+	 */
+	private void loadRange(float minX, float maxX) {
+		int first = firstChunk(minX);
+		int last  = lastChunk(maxX);
+		for (int i = first; i <= last; i++) {
+			if (!loadedChunks.containsKey(i)) {
+				loadChunk(generator.generate(i, i * CHUNK_WIDTH, (i + 1) * CHUNK_WIDTH));
+			}
 		}
+		materializer.flush(minX, maxX);
+	}
+
+	/** Registers a chunk for a planned strip and queues its columns for insertion. */
+	private void loadChunk(StripData strip) {
+		WorldChunk chunk = new WorldChunk(strip.index(), strip.minX(), strip.maxX());
+		loadedChunks.put(chunk.index(), chunk);
+		materializer.enqueue(chunk, strip);
+	}
+
+	private static int firstChunk(float minX) {
+		return Math.floorDiv((int) Math.floor(minX), CHUNK_WIDTH);
+	}
 
-		/* 3. if close to right edge – generate more rightward */
-		if (camRight + BUFFER > maxGeneratedX) {
-			int newMax = maxGeneratedX + Block.SIZE * BLOCK_BUFFER;
-			onRangeNeeded.accept(maxGeneratedX, newMax);
-			maxGeneratedX = newMax;
+	private static int lastChunk(float maxX) {
+		return Math.floorDiv((int) Math.ceil(maxX) - 1, CHUNK_WIDTH);
+	}
+
+	/** Removes every chunk lying entirely left of {@code leftLimit} or right of {@code rightLimit}. */
+	private void unloadOutside(float leftLimit, float rightLimit) {
+		while (!loadedChunks.isEmpty() && loadedChunks.firstEntry().getValue().maxX() <= leftLimit) {
+			unloadChunk(loadedChunks.pollFirstEntry());
+		}
+		while (!loadedChunks.isEmpty() && loadedChunks.lastEntry().getValue().minX() >= rightLimit) {
+			unloadChunk(loadedChunks.pollLastEntry());
 		}
 	}
+
+	private void unloadChunk(Map.Entry<Integer, WorldChunk> entry) {
+		materializer.release(entry.getValue());
+	}
 }
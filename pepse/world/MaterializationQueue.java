@@ -0,0 +1,176 @@
+package pepse.world;
+
+import danogl.collisions.GameObjectCollection;
+import pepse.world.pepse.world.trees.Flora;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Spreads the insertion of generated strips over several frames.
+ *
+ * <p>Every planned strip handed to {@link #enqueue} is split into its block
+ * columns. Each frame {@link #run(float)} materializes columns, always the
+ * one nearest the camera first, until either the per-frame object budget or
+ * the per-frame time budget is used up (at least one column is built per
+ * frame so the queue always drains). Columns that the camera is about to show
+ * can be forced out immediately with {@link #flush(float, float)}. Objects
+ * that cover the whole strip, such as its ground image, are inserted as soon
+ * as the strip is queued.</p>
+ * @author Roni
+ */
+public class MaterializationQueue {
+
+	/** A strip whose columns are not all inserted yet. */
+	private static final class Job {
+		private final WorldChunk chunk;
+		private final StripData strip;
+		private final BitSet remaining;
+
+		private Job(WorldChunk chunk, StripData strip, int columns) {
+			this.chunk     = chunk;
+			this.strip     = strip;
+			this.remaining = new BitSet(columns);
+			this.remaining.set(0, columns);
+		}
+
+		private float columnCenterX(int column) {
+			return strip.ground().startX() + column * Block.SIZE + Block.SIZE / 2f;
+		}
+	}
+
+	private final WorldGenerator generator;
+	private final GameObjectCollection gameObjects;
+	private final int objectBudget;
+	private final long timeBudgetNanos;
+	private final BlockPool blockPool;
+	private final List<Job> jobs = new ArrayList<>();
+	private int backlog;
+
+	/**
+	 * @param generator       materializes single columns of planned strips
+	 * @param gameObjects     collection the objects are inserted into and removed from
+	 * @param objectBudget    maximum number of objects inserted per frame
+	 * @param timeBudgetNanos maximum time spent inserting per frame, in nanoseconds
+	 * @param blockPool       pool the blocks of released chunks go back to, or {@code null}
+	 */
+	public MaterializationQueue(WorldGenerator generator,
+								GameObjectCollection gameObjects,
+								int objectBudget,
+								long timeBudgetNanos,
+								BlockPool blockPool) {
+		this.generator       = generator;
+		this.gameObjects     = gameObjects;
+		this.objectBudget    = objectBudget;
+		this.timeBudgetNanos = timeBudgetNanos;
+		this.blockPool       = blockPool;
+	}
+
+	/**
+	 * Inserts the objects of a planned strip that span all of it and queues
+	 * every column of the strip for insertion into {@code chunk}.
+	 *
+	 * @param chunk the (empty) chunk that will own the objects
+	 * @param strip the planned strip
+	 */
+	public void enqueue(WorldChunk chunk, StripData strip) {
+		chunk.insert(generator.materializeStrip(strip), gameObjects);
+		int columns = generator.columnCount(strip);
+		jobs.add(new Job(chunk, strip, columns));
+		backlog += columns;
+	}
+
+	/**
+	 * Cancels every queued column of {@code chunk}, removes the objects
+	 * already inserted for it and recycles its blocks.
+	 *
+	 * @param chunk the chunk being unloaded
+	 */
+	public void release(WorldChunk chunk) {
+		for (int i = 0; i < jobs.size(); i++) {
+			Job job = jobs.get(i);
+			if (job.chunk == chunk) {
+				backlog -= job.remaining.cardinality();
+				jobs.remove(i);
+				break;
+			}
+		}
+		chunk.removeFrom(gameObjects, blockPool);
+	}
+
+	/**
+	 * Materializes queued columns nearest {@code focusX} first, within this
+	 * frame's object and time budget.
+	 *
+	 * @param focusX world-space x the camera is centred on
+	 */
+	public void run(float focusX) {
+		if (backlog == 0) {
+			return;
+		}
+		/* order every queued column by distance once; each key is distance bits above entry index */
+		Job[] entryJobs = new Job[backlog];
+		int[] entryColumns = new int[backlog];
+		long[] order = new long[backlog];
+		int entries = 0;
+		for (Job job : jobs) {
+			for (int c = job.remaining.nextSetBit(0); c >= 0; c = job.remaining.nextSetBit(c + 1)) {
+				float distance = Math.abs(job.columnCenterX(c) - focusX);
+				entryJobs[entries] = job;
+				entryColumns[entries] = c;
+				/* non-negative floats order like their bits */
+				order[entries] = ((long) Float.floatToIntBits(distance) << 32) | entries;
+				entries++;
+			}
+		}
+		Arrays.sort(order, 0, entries);
+
+		long deadline = System.nanoTime() + timeBudgetNanos;
+		int inserted = 0;
+		for (int next = 0; next < entries; next++) {
+			int entry = (int) order[next];
+			inserted += materialize(entryJobs[entry], entryColumns[entry]);
+			if (inserted >= objectBudget || System.nanoTime() >= deadline) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Materializes, regardless of the budget, every queued column that
+	 * overlaps {@code [minX, maxX)}.
+	 *
+	 * @param minX inclusive left bound, in world pixels
+	 * @param maxX exclusive right bound, in world pixels
+	 */
+	public void flush(float minX, float maxX) {
+		for (int j = jobs.size() - 1; j >= 0; j--) {
+			Job job = jobs.get(j);
+			for (int c = job.remaining.nextSetBit(0); c >= 0; c = job.remaining.nextSetBit(c + 1)) {
+				float columnX = job.columnCenterX(c) - Block.SIZE / 2f;
+				if (columnX + Block.SIZE > minX && columnX < maxX) {
+					materialize(job, c);
+				}
+			}
+		}
+	}
+
+	/** @return number of columns still waiting to be inserted */
+	public int backlog() {
+		return backlog;
+	}
+
+	/** Inserts one column of a job; drops the job once it is complete. */
+	private int materialize(Job job, int column) {
+		List<Flora.LayeredObject> objects = generator.materializeColumn(job.strip, column);
+		job.chunk.insert(objects, gameObjects);
+		job.remaining.clear(column);
+		backlog--;
+		if (job.remaining.isEmpty()) {
+			jobs.remove(job);
+		}
+		return objects.size();
+	}
+}
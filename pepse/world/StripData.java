@@ -0,0 +1,19 @@
+package pepse.world;
+
+import pepse.world.pepse.world.trees.TreePlan;
+
+import java.util.List;
+
+/**
+ * Everything needed to build one {@link WorldChunk}, computed without touching
+ * the game engine so it can be produced on a worker thread.
+ *
+ * @param index  chunk index along the x-axis
+ * @param minX   inclusive left bound, in world pixels
+ * @param maxX   exclusive right bound, in world pixels
+ * @param ground surface heights of the strip
+ * @param trees  every tree planted in the strip
+ * @author Roni
+ */
+public record StripData(int index, int minX, int maxX,
+						Terrain.GroundPlan ground, List<TreePlan> trees) {}
@@ -1,14 +1,12 @@
 package pepse.world;
 
-import danogl.gui.rendering.RectangleRenderable;
-import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.pepse.util.ColorSupplier;
+import pepse.pepse.util.CoordinateRandom;
 import pepse.util.NoiseGenerator;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.BufferedImage;
 
 /**
  * Generates and manages the terrain (ground) for the Pepse world.
@@ -16,9 +14,19 @@ import java.util.List;
  * <p>The surface height at each {@code x}-coordinate is computed by adding
  * smooth-noise (OpenSimplex/Perlin) to a baseline that sits two-thirds of the
  * window height from the top.
- * For every surface column we add ground blocks
- * downward until we exceed one full window-height, ensuring the player can
- * never see “under” the terrain even when the camera follows the avatar.</p>
+ * Every surface column reaches downward until it exceeds one full
+ * window-height, ensuring the player can never see “under” the terrain even
+ * when the camera follows the avatar.</p>
+ *
+ * <p>Drawing and collision are built separately. The ground of a strip is
+ * drawn by a single {@link GroundImage}, one cell per block, while each
+ * column collides as one tall, invisible {@link Block} with the same top
+ * edge and the "ground" tag, which cuts the number of immovable physics
+ * objects by the column depth (about 25&times;).</p>
+ *
+ * <p>Ground colours vary per block cell around {@link #BASE_GROUND_COLOR},
+ * chosen from the cell's world coordinates, so a cell has the same shade
+ * however and whenever its strip is built.</p>
  * @author Noa
  */
 public class Terrain implements GroundHeightProvider {
@@ -39,13 +47,33 @@ public class Terrain implements GroundHeightProvider {
 
 	/** Base ground colour before subtle random variation. */
 	private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
+
+	/** Largest per-channel difference between a ground block and the base colour. */
+	private static final int   GROUND_COLOR_DELTA = 10;
+
+	/** {@link CoordinateRandom} salt of ground colours (Flora uses 0 and 1). */
+	private static final int   GROUND_COLOR_SALT  = 2;
 	private static String GROUND_TAG = "ground";
 
+	/**
+	 * Engine-free description of the ground in a strip, produced by
+	 * {@link #planInRange(int, int)} and turned into game objects by
+	 * {@link #materializeColumn(GroundPlan, int)} and
+	 * {@link #createImage(int, GroundPlan, TerrainImageCache)}.
+	 *
+	 * @param startX    world-space x of the first (grid-aligned) column
+	 * @param topBlockY y of the top block of each column, left to right
+	 */
+	public record GroundPlan(int startX, int[] topBlockY) {}
+
 	/* ─── instance fields ──────────────────────────────────────────────── */
 
 	private final Vector2        windowDimensions;
+	private final int            seed;
 	private final NoiseGenerator noiseGenerator;
 	private final int            groundHeightAtX0;
+	/** Recycles blocks of unloaded strips; {@code null} creates every block anew. */
+	private BlockPool            blockPool;
 
 	/**
 	 * Constructs a {@code Terrain} object that generates deterministic ground
@@ -56,9 +84,25 @@ public class Terrain implements GroundHeightProvider {
 	 *                         terrain across runs
 	 */
 	public Terrain(Vector2 windowDimensions, int seed) {
+		this(windowDimensions, seed, NoiseGenerator.Mode.COMPATIBLE);
+	}
+
+	/**
+	 * Constructs a {@code Terrain} object with an explicit noise kernel.
+	 *
+	 * @param windowDimensions dimensions of the game window (pixels)
+	 * @param seed             world seed; the same seed and mode produce
+	 *                         identical terrain across runs
+	 * @param noiseMode        {@link NoiseGenerator.Mode#COMPATIBLE} keeps the
+	 *                         exact heights of existing seeds,
+	 *                         {@link NoiseGenerator.Mode#FAST} is cheaper but
+	 *                         shapes a different world
+	 */
+	public Terrain(Vector2 windowDimensions, int seed, NoiseGenerator.Mode noiseMode) {
 		this.windowDimensions = windowDimensions;
+		this.seed             = seed;
 		this.groundHeightAtX0 = (int) (windowDimensions.y() * PART_WINDOW);
-		this.noiseGenerator   = new NoiseGenerator(seed, STARTING_POINT);
+		this.noiseGenerator   = new NoiseGenerator(seed, STARTING_POINT, noiseMode);
 	}
 
 	/**
@@ -74,42 +118,177 @@ public class Terrain implements GroundHeightProvider {
 	}
 
 	/**
-	 * Generates all {@link Block}s that make up the terrain in the horizontal
-	 * interval {@code [minX, maxX)}.
+	 * Computes the surface of a whole run of columns with a single batch call
+	 * into the noise generator; the results are identical to calling
+	 * {@link #groundHeightAt(float)} for every column.
 	 *
-	 * <p>The range is first aligned to the 32-pixel block grid so that calling
-	 * this method in different orders yields exactly the same set of blocks.
-	 * Each column is then filled from the computed surface downward until the
-	 * depth exceeds one full window height, guaranteeing no gaps are visible
-	 * when the camera moves.</p>
+	 * @param startX world-space x-coordinate of the first column
+	 * @param step   distance between neighbouring columns, in pixels
+	 * @param count  number of columns
+	 * @param out    receives the heights; must hold at least {@code count} values
+	 */
+	@Override
+	public void groundHeightsAt(int startX, int step, int count, float[] out) {
+		double[] noise = new double[count];
+		for (int i = 0; i < count; i++) {
+			float x = startX + i * step;
+			noise[i] = x * HORIZONTAL_SCALE;   // same float product as groundHeightAt
+		}
+		noiseGenerator.noiseAt(noise, count, HEIGHT_FACTOR, noise);
+		for (int i = 0; i < count; i++) {
+			out[i] = groundHeightAtX0 + (float) noise[i];
+		}
+	}
+
+	/**
+	 * Switches the backend used for batches of surface heights; see
+	 * {@link NoiseGenerator#useBackend(NoiseGenerator.Backend)}. The heights
+	 * themselves do not change.
+	 *
+	 * @param backend the wanted backend
+	 * @return        the backend actually in use (the scalar one if the vector
+	 *                backend is unavailable on this JVM)
+	 */
+	public NoiseGenerator.Backend useNoiseBackend(NoiseGenerator.Backend backend) {
+		return noiseGenerator.useBackend(backend);
+	}
+
+	/**
+	 * Makes this terrain take its blocks from {@code pool}; whoever removes
+	 * them from the scene should hand them back with {@link BlockPool#release}.
+	 *
+	 * @param pool the pool to draw blocks from, or {@code null} to allocate every block
+	 */
+	public void useBlockPool(BlockPool pool) {
+		this.blockPool = pool;
+	}
+
+	/**
+	 * Computes the top block of every column in {@code [minX, maxX)}, without
+	 * creating any game object. Safe to call from any thread.
 	 *
 	 * @param minX left bound (inclusive) in world pixels
 	 * @param maxX right bound (exclusive) in world pixels
-	 * @return     list of newly created ground blocks for this interval
+	 * @return     the ground plan for this interval
 	 */
-	public List<Block> createInRange(int minX, int maxX) {
-		List<Block> blocks = new ArrayList<>();
-		Renderable  rend   = new RectangleRenderable(
-				ColorSupplier.approximateColor(BASE_GROUND_COLOR));
+	public GroundPlan planInRange(int minX, int maxX) {
+		return planInRange(minX, maxX, this);
+	}
 
+	/**
+	 * Same as {@link #planInRange(int, int)}, but reads the surface through
+	 * {@code heights}, e.g.&nbsp;a {@link CachedGroundHeightProvider} wrapping
+	 * this terrain.
+	 *
+	 * @param minX    left bound (inclusive) in world pixels
+	 * @param maxX    right bound (exclusive) in world pixels
+	 * @param heights provider of this terrain's surface heights
+	 * @return        the ground plan for this interval
+	 */
+	public GroundPlan planInRange(int minX, int maxX, GroundHeightProvider heights) {
 		/* align to 32-px grid */
 		int startX = (minX / Block.SIZE) * Block.SIZE;
 		int endX   = ((maxX + Block.SIZE - 1) / Block.SIZE) * Block.SIZE;
 
-		for (int x = startX; x < endX; x += Block.SIZE) {
-
+		int[] topBlockY = new int[Math.max(0, (endX - startX) / Block.SIZE)];
+		float[] rawSurfaceY = new float[topBlockY.length];
+		heights.groundHeightsAt(startX, Block.SIZE, topBlockY.length, rawSurfaceY);
+		for (int i = 0; i < topBlockY.length; i++) {
 			/* top block of this column */
-			float rawSurfaceY = groundHeightAt(x);
-			int   topBlockY   = (int) (Math.floor(rawSurfaceY / Block.SIZE) * Block.SIZE);
-
-			/* ensure depth ≥ window height (+ one extra row) */
-			float requiredDepth = windowDimensions.y() + Block.SIZE;
-			for (float y = topBlockY; y < topBlockY + requiredDepth; y += Block.SIZE) {
-				Block b = new Block(new Vector2(x, y), rend);
-				b.setTag(GROUND_TAG);
-				blocks.add(b);
+			topBlockY[i] = (int) (Math.floor(rawSurfaceY[i] / Block.SIZE) * Block.SIZE);
+		}
+		return new GroundPlan(startX, topBlockY);
+	}
+
+	/**
+	 * Builds the collider of a single planned column: one invisible block
+	 * spanning every cell of the column. Must run on the game thread.
+	 *
+	 * @param plan   a plan produced by {@link #planInRange(int, int)}
+	 * @param column zero-based column index inside the plan
+	 * @return       the column's ground block
+	 */
+	public Block materializeColumn(GroundPlan plan, int column) {
+		int x    = plan.startX() + column * Block.SIZE;
+		int topY = plan.topBlockY()[column];
+		Vector2 topLeft    = new Vector2(x, topY);
+		Vector2 dimensions = new Vector2(Block.SIZE, columnRows() * Block.SIZE);
+		if (blockPool != null) {
+			return blockPool.acquire(topLeft, dimensions, null, GROUND_TAG);
+		}
+		Block b = new Block(topLeft, dimensions, null);
+		b.setTag(GROUND_TAG);
+		return b;
+	}
+
+	/**
+	 * Creates the object that draws a whole planned strip. Must run on the
+	 * game thread.
+	 *
+	 * @param chunkIndex index of the strip's chunk, under which its image is cached
+	 * @param plan       a plan produced by {@link #planInRange(int, int)}
+	 * @param imageCache cache the strip's image is shared through
+	 * @return           the strip's {@link GroundImage}, or {@code null} if the
+	 *                   strip has no columns
+	 */
+	public GroundImage createImage(int chunkIndex, GroundPlan plan, TerrainImageCache imageCache) {
+		int[] topBlockY = plan.topBlockY();
+		if (topBlockY.length == 0) {
+			return null;
+		}
+		int top = Integer.MAX_VALUE;
+		int bottom = Integer.MIN_VALUE;
+		for (int y : topBlockY) {
+			top    = Math.min(top, y);
+			bottom = Math.max(bottom, y + columnRows() * Block.SIZE);
+		}
+		return new GroundImage(new Vector2(plan.startX(), top),
+				new Vector2(topBlockY.length * Block.SIZE, bottom - top),
+				this, imageCache, chunkIndex, plan);
+	}
+
+	/**
+	 * Draws a planned strip into an image holding one pixel per block cell,
+	 * each in its own ground colour; cells without ground stay transparent.
+	 *
+	 * @param plan a plan produced by {@link #planInRange(int, int)}
+	 * @return     the strip's ground, {@code 1 / Block.SIZE} of its size
+	 */
+	BufferedImage rasterize(GroundPlan plan) {
+		int[] topBlockY = plan.topBlockY();
+		int rows = columnRows();
+		int topRow = Integer.MAX_VALUE;
+		int bottomRow = Integer.MIN_VALUE;
+		for (int y : topBlockY) {
+			topRow    = Math.min(topRow, y / Block.SIZE);
+			bottomRow = Math.max(bottomRow, y / Block.SIZE + rows);
+		}
+		BufferedImage image = new BufferedImage(topBlockY.length, bottomRow - topRow,
+				BufferedImage.TYPE_INT_ARGB);
+		for (int column = 0; column < topBlockY.length; column++) {
+			long columnKey = columnKey(plan.startX() + column * Block.SIZE);
+			int firstRow = topBlockY[column] / Block.SIZE;
+			for (int row = firstRow; row < firstRow + rows; row++) {
+				image.setRGB(column, row - topRow, groundColor(columnKey, row).getRGB());
 			}
 		}
-		return blocks;
+		return image;
+	}
+
+	/** Number of blocks stacked in every column: depth ≥ window height (+ one extra row). */
+	private int columnRows() {
+		float requiredDepth = windowDimensions.y() + Block.SIZE;
+		return (int) Math.ceil(requiredDepth / Block.SIZE);
+	}
+
+	/** {@link CoordinateRandom} key of the ground colours of the column at {@code x}. */
+	private long columnKey(int x) {
+		return CoordinateRandom.key(seed, Math.floorDiv(x, Block.SIZE), GROUND_COLOR_SALT);
+	}
+
+	/** Colour of the cell in {@code row} of a column. */
+	private Color groundColor(long columnKey, int row) {
+		return ColorSupplier.approximateColor(BASE_GROUND_COLOR, GROUND_COLOR_DELTA,
+				CoordinateRandom.child(columnKey, row));
 	}
-}
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package pepse.world;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the pre-rasterized ground images of the most recently drawn chunks.
+ *
+ * <p>Entries are ordered by last use; once more than {@code maxChunks} images
+ * are cached the least recently used one is dropped. A {@link GroundImage}
+ * whose entry was dropped simply rasterizes its strip again the next time it
+ * is drawn, so eviction only costs time, never correctness. Used on the game
+ * thread only.</p>
+ * @author Noa
+ */
+public class TerrainImageCache {
+
+	private final int maxChunks;
+	private final LinkedHashMap<Integer, BufferedImage> images;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param maxChunks maximum number of chunk images kept
+	 */
+	public TerrainImageCache(int maxChunks) {
+		if (maxChunks <= 0) {
+			throw new IllegalArgumentException("maxChunks must be positive: " + maxChunks);
+		}
+		this.maxChunks = maxChunks;
+		this.images = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+				if (size() > TerrainImageCache.this.maxChunks) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cached image of a chunk and marks it as recently used.
+	 *
+	 * @param chunkIndex index of the chunk
+	 * @return the image, or {@code null} if it is not (or no longer) cached
+	 */
+	public BufferedImage get(int chunkIndex) {
+		BufferedImage image = images.get(chunkIndex);
+		if (image == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return image;
+	}
+
+	/**
+	 * Caches the image of a chunk, evicting the least recently used one if full.
+	 *
+	 * @param chunkIndex index of the chunk
+	 * @param image      the chunk's rasterized ground
+	 */
+	public void put(int chunkIndex, BufferedImage image) {
+		images.put(chunkIndex, image);
+	}
+
+	/** @return number of lookups that found their image */
+	public long hits() {
+		return hits;
+	}
+
+	/** @return number of lookups that had to rasterize */
+	public long misses() {
+		return misses;
+	}
+
+	/** @return number of images dropped to stay within the limit */
+	public long evictions() {
+		return evictions;
+	}
+
+	/** @return number of images currently cached */
+	public int size() {
+		return images.size();
+	}
+}
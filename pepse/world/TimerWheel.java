@@ -0,0 +1,210 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timer wheel that runs delayed world events, e.g.&nbsp;fruit
+ * respawns, from one place instead of one {@code ScheduledTask} component
+ * per event.
+ *
+ * <p>Time advances in fixed ticks. The wheel has a power-of-two number of
+ * buckets and the cursor moves to the next bucket every tick; a timer due in
+ * {@code t} ticks waits in bucket {@code (cursor + t) mod buckets} with a
+ * round counter for every full turn it still has to wait. Each tick
+ * therefore only visits one bucket, which holds the timers due on that tick
+ * plus any that are whole turns away. With a turn longer than the usual
+ * delays every visited timer fires, so a tick costs O(1) per fired
+ * callback.</p>
+ *
+ * <p>Timers live in parallel primitive arrays linked into per-bucket lists;
+ * freed entries are reused, so once the arrays have grown to the largest
+ * number of simultaneous timers, scheduling allocates nothing (pass a
+ * {@link Runnable} that is created once, not a fresh lambda per call). Not
+ * thread-safe: timers are scheduled and fired on the game thread. A callback
+ * may schedule new timers, but must not cancel other timers that are due on
+ * the same tick.</p>
+ * @author Roni
+ */
+public class TimerWheel extends GameObject {
+
+	/** Handle value that never denotes a pending timer. */
+	public static final int NO_TIMER = -1;
+
+	/** Marks the end of a bucket's list and of the free list. */
+	private static final int END = -1;
+
+	/** Number of timer entries allocated up front; doubled whenever it runs out. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final float tickSeconds;
+	private final int mask;
+	private final int[] bucketHeads;
+
+	/* --- one entry per timer --- */
+	private int[] next    = new int[INITIAL_CAPACITY];
+	private int[] prev    = new int[INITIAL_CAPACITY];
+	private int[] bucket  = new int[INITIAL_CAPACITY];
+	private int[] rounds  = new int[INITIAL_CAPACITY];
+	private Runnable[] callbacks = new Runnable[INITIAL_CAPACITY];
+
+	private int highWater;
+	private int freeHead = END;
+	private int pending;
+
+	private int cursor;
+	private long ticks;
+	private float accumulated;
+
+	/**
+	 * @param tickSeconds length of one tick; delays are rounded up to whole ticks
+	 * @param buckets     number of buckets, rounded up to a power of two; one turn of
+	 *                    the wheel lasts {@code buckets * tickSeconds}
+	 */
+	public TimerWheel(float tickSeconds, int buckets) {
+		super(Vector2.ZERO, Vector2.ZERO, null);   // invisible object
+		if (tickSeconds <= 0 || buckets <= 0) {
+			throw new IllegalArgumentException("tick length and bucket count must be positive");
+		}
+		int size = Integer.highestOneBit(buckets);
+		if (size < buckets) {
+			size <<= 1;
+		}
+		this.tickSeconds = tickSeconds;
+		this.mask        = size - 1;
+		this.bucketHeads = new int[size];
+		Arrays.fill(bucketHeads, END);
+	}
+
+	/**
+	 * Runs {@code callback} once, {@code delaySeconds} from now (at least one tick).
+	 *
+	 * @param delaySeconds delay in seconds
+	 * @param callback     action to run on the game thread
+	 * @return a handle for {@link #cancel(int)} and {@link #remainingSeconds(int)}, valid
+	 *         until the timer fires or is cancelled
+	 */
+	public int schedule(float delaySeconds, Runnable callback) {
+		int delayTicks = Math.max(1, (int) Math.ceil(delaySeconds / tickSeconds));
+		int timer = allocate();
+		int target = (cursor + delayTicks) & mask;
+		callbacks[timer] = callback;
+		rounds[timer]    = (delayTicks - 1) / bucketHeads.length;
+		bucket[timer]    = target;
+
+		/* push onto the target bucket's list */
+		prev[timer] = END;
+		next[timer] = bucketHeads[target];
+		if (bucketHeads[target] != END) {
+			prev[bucketHeads[target]] = timer;
+		}
+		bucketHeads[target] = timer;
+		pending++;
+		return timer;
+	}
+
+	/**
+	 * Cancels a pending timer; does nothing for {@link #NO_TIMER}.
+	 *
+	 * @param timer a handle returned by {@link #schedule}
+	 */
+	public void cancel(int timer) {
+		if (timer == NO_TIMER || callbacks[timer] == null) {
+			return;
+		}
+		unlink(timer);
+	}
+
+	/**
+	 * @param timer a handle returned by {@link #schedule}
+	 * @return seconds until the timer fires, at tick resolution, or -1 if it is not pending
+	 */
+	public float remainingSeconds(int timer) {
+		if (timer == NO_TIMER || callbacks[timer] == null) {
+			return -1f;
+		}
+		int ticksToBucket = (bucket[timer] - cursor) & mask;
+		if (ticksToBucket == 0) {
+			ticksToBucket = bucketHeads.length;
+		}
+		long remainingTicks = ticksToBucket + (long) rounds[timer] * bucketHeads.length;
+		return remainingTicks * tickSeconds - accumulated;
+	}
+
+	/** @return number of timers waiting to fire */
+	public int pendingCount() {
+		return pending;
+	}
+
+	/** @return number of ticks elapsed since the wheel was created */
+	public long ticks() {
+		return ticks;
+	}
+
+	/**
+	 * Advances the wheel by whole ticks and fires every timer that came due.
+	 *
+	 * @param deltaTime seconds since the last frame
+	 */
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		accumulated += deltaTime;
+		while (accumulated >= tickSeconds) {
+			accumulated -= tickSeconds;
+			cursor = (cursor + 1) & mask;
+			ticks++;
+			fireBucket(cursor);
+		}
+	}
+
+	private void fireBucket(int index) {
+		int timer = bucketHeads[index];
+		while (timer != END) {
+			int following = next[timer];   // the callback may reuse this entry
+			if (rounds[timer] > 0) {
+				rounds[timer]--;
+			} else {
+				Runnable callback = callbacks[timer];
+				unlink(timer);
+				callback.run();
+			}
+			timer = following;
+		}
+	}
+
+	/** Removes a pending timer from its bucket and puts its entry on the free list. */
+	private void unlink(int timer) {
+		if (prev[timer] != END) {
+			next[prev[timer]] = next[timer];
+		} else {
+			bucketHeads[bucket[timer]] = next[timer];
+		}
+		if (next[timer] != END) {
+			prev[next[timer]] = prev[timer];
+		}
+		callbacks[timer] = null;
+		next[timer] = freeHead;
+		freeHead = timer;
+		pending--;
+	}
+
+	private int allocate() {
+		if (freeHead != END) {
+			int timer = freeHead;
+			freeHead = next[timer];
+			return timer;
+		}
+		if (highWater == callbacks.length) {
+			int capacity = callbacks.length * 2;
+			next      = Arrays.copyOf(next, capacity);
+			prev      = Arrays.copyOf(prev, capacity);
+			bucket    = Arrays.copyOf(bucket, capacity);
+			rounds    = Arrays.copyOf(rounds, capacity);
+			callbacks = Arrays.copyOf(callbacks, capacity);
+		}
+		return highWater++;
+	}
+}
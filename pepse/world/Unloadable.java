@@ -0,0 +1,18 @@
+package pepse.world;
+
+/**
+ * Marks a {@link danogl.GameObject GameObject} that holds on to something
+ * outside the scene graph, e.g.&nbsp;slots in a shared animation system,
+ * which must be given back when the object's {@link WorldChunk} is unloaded.
+ *
+ * <p>{@link WorldChunk} calls {@link #onUnload()} right after removing the
+ * object from its layer.</p>
+ * @author Roni
+ */
+public interface Unloadable {
+
+	/**
+	 * Releases whatever this object holds outside the scene graph.
+	 */
+	void onUnload();
+}
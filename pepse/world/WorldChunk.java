@@ -0,0 +1,101 @@
+package pepse.world;
+
+import danogl.collisions.GameObjectCollection;
+import pepse.world.pepse.world.trees.Flora;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-width vertical strip of the world together with every
+ * {@link danogl.GameObject GameObject} that was generated for it.
+ *
+ * <p>Chunk {@code i} always covers the world-space interval
+ * {@code [i * width, (i + 1) * width)}, so a chunk that is unloaded and later
+ * rebuilt produces exactly the same objects in exactly the same place.
+ * A chunk starts empty and is filled column by column as its objects are
+ * materialized; it remembers the layer of each object so it can remove them
+ * again without searching the whole collection.</p>
+ * @author Roni
+ */
+public class WorldChunk {
+
+	private final int index;
+	private final int minX;
+	private final int maxX;
+	private final List<Flora.LayeredObject> objects = new ArrayList<>();
+
+	/**
+	 * @param index   chunk index along the x-axis (may be negative)
+	 * @param minX    inclusive left bound, in world pixels
+	 * @param maxX    exclusive right bound, in world pixels
+	 */
+	public WorldChunk(int index, int minX, int maxX) {
+		this.index   = index;
+		this.minX    = minX;
+		this.maxX    = maxX;
+	}
+
+	/** @return chunk index along the x-axis */
+	public int index() {
+		return index;
+	}
+
+	/** @return inclusive left bound, in world pixels */
+	public int minX() {
+		return minX;
+	}
+
+	/** @return exclusive right bound, in world pixels */
+	public int maxX() {
+		return maxX;
+	}
+
+	/** @return number of game objects currently owned by this chunk */
+	public int size() {
+		return objects.size();
+	}
+
+	/**
+	 * Inserts objects into their preferred layers and records them as part of this chunk.
+	 *
+	 * @param added       objects to insert
+	 * @param gameObjects the scene's object collection
+	 */
+	public void insert(List<Flora.LayeredObject> added, GameObjectCollection gameObjects) {
+		for (Flora.LayeredObject lo : added) {
+			gameObjects.addGameObject(lo.obj(), lo.layer());
+			objects.add(lo);
+		}
+	}
+
+	/**
+	 * Removes every object of this chunk from the layer it was inserted into.
+	 *
+	 * @param gameObjects the scene's object collection
+	 */
+	public void removeFrom(GameObjectCollection gameObjects) {
+		removeFrom(gameObjects, null);
+	}
+
+	/**
+	 * Removes every object of this chunk from the layer it was inserted into,
+	 * lets every {@link Unloadable} among them clean up, and hands its blocks
+	 * back to {@code pool}.
+	 *
+	 * @param gameObjects the scene's object collection
+	 * @param pool        pool the removed blocks are released to, or {@code null}
+	 */
+	public void removeFrom(GameObjectCollection gameObjects, BlockPool pool) {
+		for (Flora.LayeredObject lo : objects) {
+			gameObjects.removeGameObject(lo.obj(), lo.layer());
+			if (lo.obj() instanceof Unloadable unloadable) {
+				unloadable.onUnload();
+			}
+			if (pool != null && lo.obj() instanceof Block block) {
+				pool.release(block);
+			}
+		}
+		objects.clear();
+	}
+}
@@ -0,0 +1,167 @@
+package pepse.world;
+
+import danogl.collisions.Layer;
+import pepse.world.pepse.world.trees.Flora;
+import pepse.world.pepse.world.trees.TreePlan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates world strips in two phases so that the expensive part never runs
+ * inside a frame.
+ *
+ * <ol>
+ *   <li><strong>Planning</strong> ({@link #generate}) evaluates the terrain
+ *       noise, makes every tree decision and picks every colour. It creates no
+ *       game objects and may run on any thread; {@link #request} runs it on a
+ *       small pool of daemon worker threads and hands the result back through
+ *       a thread-safe queue.</li>
+ *   <li><strong>Materialization</strong> ({@link #materializeColumn}) turns
+ *       one column of a finished {@link StripData} into game objects and must
+ *       run on the game thread.</li>
+ * </ol>
+ *
+ * <p>With a {@link ChunkStore} every planned strip is recorded, and a strip
+ * planned before is rebuilt from the store instead of being planned again.</p>
+ * @author Roni
+ */
+public class WorldGenerator {
+
+	/** Name given to worker threads, handy when profiling. */
+	private static final String WORKER_NAME = "world-generator";
+
+	private final Terrain terrain;
+	private final GroundHeightProvider heights;
+	private final Flora flora;
+	private final ExecutorService workers;
+	private final TerrainImageCache imageCache;
+	private final ConcurrentLinkedQueue<StripData> ready = new ConcurrentLinkedQueue<>();
+	/** Records planned strips; {@code null} plans every strip from scratch. */
+	private ChunkStore store;
+
+	/**
+	 * @param terrain       terrain whose heights and blocks are generated
+	 * @param heights       provider the terrain surface is read through (may be {@code terrain})
+	 * @param flora         flora whose trees are generated
+	 * @param imageCache    cache the strips' ground images are shared through
+	 * @param workerThreads number of background threads used by {@link #request}
+	 */
+	public WorldGenerator(Terrain terrain, GroundHeightProvider heights,
+						  Flora flora, TerrainImageCache imageCache, int workerThreads) {
+		this.terrain    = terrain;
+		this.heights    = heights;
+		this.flora      = flora;
+		this.imageCache = imageCache;
+		this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), task -> {
+			Thread worker = new Thread(task, WORKER_NAME);
+			worker.setDaemon(true);   // never keeps the game process alive
+			return worker;
+		});
+	}
+
+	/**
+	 * Makes this generator record every planned strip in {@code store} and
+	 * rebuild recorded strips from it.
+	 *
+	 * @param store the store to use, or {@code null} to always plan from scratch
+	 */
+	public void useChunkStore(ChunkStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Plans the strip {@code [minX, maxX)} on the calling thread, or rebuilds
+	 * it from the chunk store if it was planned before.
+	 *
+	 * @param index chunk index of the strip
+	 * @param minX  inclusive left bound, in world pixels
+	 * @param maxX  exclusive right bound, in world pixels
+	 * @return the planned strip
+	 */
+	public StripData generate(int index, int minX, int maxX) {
+		if (store != null) {
+			StripData stored = store.load(index);
+			if (stored != null) {
+				return stored;
+			}
+		}
+		StripData strip = new StripData(index, minX, maxX,
+				terrain.planInRange(minX, maxX, heights),
+				flora.planInRange(minX, maxX));
+		if (store != null) {
+			store.save(strip);
+		}
+		return strip;
+	}
+
+	/**
+	 * Plans the strip {@code [minX, maxX)} on a worker thread; the result
+	 * later shows up in {@link #pollReady()}. A recorded strip is rebuilt right
+	 * away instead, which is cheaper than handing it to a worker.
+	 *
+	 * @param index chunk index of the strip
+	 * @param minX  inclusive left bound, in world pixels
+	 * @param maxX  exclusive right bound, in world pixels
+	 */
+	public void request(int index, int minX, int maxX) {
+		if (store != null && store.contains(index)) {
+			ready.add(generate(index, minX, maxX));
+			return;
+		}
+		workers.execute(() -> ready.add(generate(index, minX, maxX)));
+	}
+
+	/** @return the next strip finished by a worker, or {@code null} if none is ready */
+	public StripData pollReady() {
+		return ready.poll();
+	}
+
+	/**
+	 * Builds the game objects that belong to a planned strip as a whole
+	 * rather than to one of its columns: its {@link GroundImage}. Must run on
+	 * the game thread.
+	 *
+	 * @param strip a strip produced by {@link #generate} or {@link #request}
+	 * @return those objects paired with their target layer; empty for a strip without columns
+	 */
+	public List<Flora.LayeredObject> materializeStrip(StripData strip) {
+		GroundImage image = terrain.createImage(strip.index(), strip.ground(), imageCache);
+		if (image == null) {
+			return List.of();
+		}
+		return List.of(new Flora.LayeredObject(image.defaultLayer(), image));
+	}
+
+	/**
+	 * Builds the game objects of a single column of a planned strip: its
+	 * ground collider and the tree rooted in it, if any. Must run on the game thread.
+	 *
+	 * @param strip  a strip produced by {@link #generate} or {@link #request}
+	 * @param column zero-based column index inside the strip
+	 * @return every object of that column paired with its target layer
+	 */
+	public List<Flora.LayeredObject> materializeColumn(StripData strip, int column) {
+		List<Flora.LayeredObject> objects = new ArrayList<>();
+		objects.add(new Flora.LayeredObject(Layer.STATIC_OBJECTS,
+				terrain.materializeColumn(strip.ground(), column)));
+		int columnX = strip.ground().startX() + column * Block.SIZE;
+		for (TreePlan tree : strip.trees()) {
+			if ((int) tree.x() == columnX) {
+				objects.addAll(flora.materialize(List.of(tree)));
+			}
+		}
+		return objects;
+	}
+
+	/**
+	 * @param strip a planned strip
+	 * @return number of block columns in the strip
+	 */
+	public int columnCount(StripData strip) {
+		return strip.ground().topBlockY().length;
+	}
+}
@@ -2,9 +2,6 @@
 package pepse.world.pepse.world.daynight;
 
 import danogl.GameObject;
-import danogl.components.Transition;
-import danogl.components.Transition.TransitionType;
-import danogl.components.Transition.Interpolator;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
@@ -16,22 +13,22 @@ import java.awt.Color;
  *
  * <p>This class creates a full-screen black overlay (in CAMERA coordinates) whose opacity
  * smoothly transitions from fully transparent (day) to a semi-transparent midnight state
- * and back to transparent over a specified cycle length. The transition uses a cubic
- * ease-in/out interpolator to simulate a day→night→day effect.</p>
+ * and back to transparent over one day of the {@link WorldClock}. The opacity follows a
+ * cubic ease-in/out curve to simulate a day→night→day effect.</p>
  * @author Roni
  */
 public class Night {
 
 	/** The opacity at “midnight” (half-opaque black). */
-	private static final Float MIDNIGHT_OPACITY = 0.5f;
+	private static final float MIDNIGHT_OPACITY = 0.5f;
 
 	/** Overlay Tag. */
 	private static final String OVERLAY = "DayNightOverlay";
 
 	/**
 	 * Builds a GameObject that covers the entire window with a black overlay.
-	 * The overlay’s alpha transitions from 0.0 → MIDNIGHT_OPACITY → 0.0 over
-	 * {@code cycleLength} seconds, using a cubic ease-in/out interpolator.
+	 * The overlay’s alpha goes from 0.0 → MIDNIGHT_OPACITY → 0.0 over one day of
+	 * {@code clock}, with a cubic ease-in/out curve.
 	 *
 	 * <p>The resulting GameObject:
 	 * <ul>
@@ -43,11 +40,11 @@ public class Night {
 	 * </ul></p>
 	 *
 	 * @param windowDimensions A Vector2 containing (windowWidth, windowHeight).
-	 * @param cycleLength      The total duration (in seconds) of one day→night→day cycle.
+	 * @param clock            The world clock whose time of day sets the opacity.
 	 * @return A GameObject tagged "DayNightOverlay" in CAMERA coordinates,
-	 *         with an attached Transition component that animates its opacity.
+	 *         whose opacity the clock animates.
 	 */
-	public static GameObject create(Vector2 windowDimensions, float cycleLength) {
+	public static GameObject create(Vector2 windowDimensions, WorldClock clock) {
 		// 1. Create a solid black rectangle renderable
 		RectangleRenderable blackRenderable = new RectangleRenderable(Color.BLACK);
 
@@ -67,25 +64,19 @@ public class Night {
 		// 5. Start fully transparent (alpha = 0.0 → “daytime”)
 		night.renderer().setOpaqueness(0f);
 
-		// 6. Prepare Transition parameters
-		float halfCycle = cycleLength / 2f;
-		// Time for one half-cycle (day→midnight or midnight→day)
-		TransitionType transitionType = TransitionType.TRANSITION_BACK_AND_FORTH;
-		Interpolator<Float> interpolator = Transition.CUBIC_INTERPOLATOR_FLOAT;
+		// 6. Let the clock cycle alpha 0.0 → 0.5 → 0.0, reaching midnight halfway through the day
+		clock.addListener(time -> night.renderer().setOpaqueness(opacityAt(time.timeOfDay())));
 
-		// 7. Attach the Transition that cycles alpha 0.0 → 0.5 → 0.0
-		new Transition<>(
-				/* gameObjectToUpdateThrough= */ night,
-				/* setValueCallback          = */ night.renderer()::setOpaqueness,
-				/* initialValue              = */ 0f,                  // Start at alpha = 0.0 (day)
-				/* finalValue                = */ MIDNIGHT_OPACITY,    // Fade to alpha = 0.5 (midnight)
-				/* interpolator              = */ interpolator,
-				/* transitionTime            = */ halfCycle,
-				/* transitionType            = */ transitionType,
-				/* onReachingFinalValue      = */ null                 // No callback needed at midpoint
-		);
-
-		// 8. Return the fully configured GameObject
+		// 7. Return the fully configured GameObject
 		return night;
 	}
+
+	/**
+	 * Cubic ease-in/out back and forth, as {@code Transition.CUBIC_INTERPOLATOR_FLOAT}
+	 * with {@code TRANSITION_BACK_AND_FORTH} over two half-days.
+	 */
+	private static float opacityAt(float timeOfDay) {
+		float t = timeOfDay < 0.5f ? 2f * timeOfDay : 2f - 2f * timeOfDay;
+		return MIDNIGHT_OPACITY * t * t * (3f - 2f * t);
+	}
 }
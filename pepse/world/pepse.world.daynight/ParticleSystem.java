@@ -0,0 +1,229 @@
+package pepse.world.pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+
+/**
+ * A fixed-capacity pool of small square particles, e.g.&nbsp;raindrops, that
+ * live in primitive arrays instead of being one game object each.
+ *
+ * <p>A particle moves at its velocity, optionally pulled down by a constant
+ * {@link #setGravity(float) gravity}, until its centre reaches its own floor
+ * line. There it stops, tells the {@link LandingListener} if one is set, and
+ * fades out linearly over
+ * {@code fadeDuration} seconds, after which it disappears. Every particle is
+ * updated in a single loop per frame and drawn by the system's one
+ * {@link Renderable}, so spawning and expiring particles never adds objects
+ * to or removes them from the scene.</p>
+ *
+ * <p>Particles are kept in a ring ordered by spawn time. When the system is
+ * full, spawning drops the oldest particle. Particle coordinates are in the
+ * same space as the system itself (camera or world coordinates); the system's
+ * bounds only decide where danogl considers it visible. Spawning and updating
+ * allocate nothing.</p>
+ * @author Roni
+ */
+public class ParticleSystem extends GameObject {
+
+	/** Told where particles reach their floor, e.g.&nbsp;to splash. */
+	public interface LandingListener {
+		/**
+		 * Called during {@link #update(float)} for every particle that reached
+		 * its floor in that frame; it must not spawn into the same system.
+		 *
+		 * @param centerX x of the particle's centre
+		 * @param centerY y of the particle's centre, its floor
+		 */
+		void onLanded(float centerX, float centerY);
+	}
+
+	/** Number of distinct opacity steps a fading particle is drawn with. */
+	private static final int ALPHA_LEVELS = 32;
+
+	/** Marks a particle that has not reached its floor yet. */
+	private static final float FALLING = -1f;
+
+	private final int capacity;
+	private final float particleSize;
+	private final float fadeDuration;
+	/** The particle colour at every opacity step, built once. */
+	private final Color[] shades = new Color[ALPHA_LEVELS + 1];
+	private float gravity;
+	private LandingListener landingListener;
+
+	/* --- one entry per particle, ring-ordered from oldest (head) to newest --- */
+	private final float[] x;
+	private final float[] y;
+	private final float[] velocityX;
+	private final float[] velocityY;
+	private final float[] floorY;
+	/** Seconds spent fading, or {@link #FALLING}. */
+	private final float[] fadeElapsed;
+
+	private int head;
+	private int count;
+	private long dropped;
+
+	/**
+	 * @param topLeft      top-left corner of the area the particles are drawn in
+	 * @param dimensions   size of that area
+	 * @param capacity     maximum number of live particles
+	 * @param particleSize width&nbsp;=&nbsp;height of a particle, in pixels
+	 * @param color        colour of the particles when fully opaque
+	 * @param fadeDuration seconds a particle takes to fade out once it reaches its floor
+	 */
+	public ParticleSystem(Vector2 topLeft, Vector2 dimensions, int capacity,
+						  float particleSize, Color color, float fadeDuration) {
+		super(topLeft, dimensions, null);
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.capacity     = capacity;
+		this.particleSize = particleSize;
+		this.fadeDuration = fadeDuration;
+		x           = new float[capacity];
+		y           = new float[capacity];
+		velocityX   = new float[capacity];
+		velocityY   = new float[capacity];
+		floorY      = new float[capacity];
+		fadeElapsed = new float[capacity];
+		for (int level = 0; level <= ALPHA_LEVELS; level++) {
+			shades[level] = new Color(color.getRed(), color.getGreen(), color.getBlue(),
+					color.getAlpha() * level / ALPHA_LEVELS);
+		}
+		renderer().setRenderable(new ParticleRenderable());
+	}
+
+	/**
+	 * Adds a particle, dropping the oldest one if the system is full.
+	 *
+	 * @param centerX   x of the particle's centre
+	 * @param centerY   y of the particle's centre
+	 * @param velocityX horizontal speed, in pixels per second
+	 * @param velocityY vertical speed, in pixels per second (positive is down)
+	 * @param floor     y at which the particle stops and starts fading
+	 */
+	public void spawn(float centerX, float centerY, float velocityX, float velocityY, float floor) {
+		if (count == capacity) {
+			head = (head + 1) % capacity;   // drop the oldest
+			count--;
+			dropped++;
+		}
+		int i = (head + count) % capacity;
+		x[i]              = centerX;
+		y[i]              = centerY;
+		this.velocityX[i] = velocityX;
+		this.velocityY[i] = velocityY;
+		floorY[i]         = floor;
+		fadeElapsed[i]    = FALLING;
+		count++;
+	}
+
+	/**
+	 * @param gravity downward acceleration of falling particles, in pixels per
+	 *                second squared; 0 (the default) keeps their velocity constant
+	 */
+	public void setGravity(float gravity) {
+		this.gravity = gravity;
+	}
+
+	/**
+	 * @param listener told about every particle that reaches its floor, or
+	 *                 {@code null} for none
+	 */
+	public void setLandingListener(LandingListener listener) {
+		this.landingListener = listener;
+	}
+
+	/** @return number of live particles */
+	public int particleCount() {
+		return count;
+	}
+
+	/** @return maximum number of live particles */
+	public int capacity() {
+		return capacity;
+	}
+
+	/** @return number of particles dropped early because the system was full */
+	public long droppedCount() {
+		return dropped;
+	}
+
+	/**
+	 * Moves or fades every particle and removes the expired ones, keeping the
+	 * survivors in spawn order.
+	 *
+	 * @param deltaTime seconds since the last frame
+	 */
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		int kept = 0;
+		for (int n = 0; n < count; n++) {
+			int i = (head + n) % capacity;
+			if (fadeElapsed[i] == FALLING) {
+				velocityY[i] += gravity * deltaTime;
+				x[i] += velocityX[i] * deltaTime;
+				y[i] += velocityY[i] * deltaTime;
+				if (y[i] >= floorY[i]) {
+					y[i] = floorY[i];
+					fadeElapsed[i] = 0f;
+					if (landingListener != null) {
+						landingListener.onLanded(x[i], y[i]);
+					}
+				}
+			} else {
+				fadeElapsed[i] += deltaTime;
+				if (fadeElapsed[i] >= fadeDuration) {
+					continue;   // expired
+				}
+			}
+			int to = (head + kept) % capacity;
+			if (to != i) {
+				x[to]           = x[i];
+				y[to]           = y[i];
+				velocityX[to]   = velocityX[i];
+				velocityY[to]   = velocityY[i];
+				floorY[to]      = floorY[i];
+				fadeElapsed[to] = fadeElapsed[i];
+			}
+			kept++;
+		}
+		count = kept;
+	}
+
+	/** Draws every live particle as a filled square at its current opacity. */
+	private final class ParticleRenderable implements Renderable {
+		@Override
+		public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+						   double degreesCounterClockwise, boolean isFlippedHorizontally,
+						   boolean isFlippedVertically, double opaqueness) {
+			Composite composite = g.getComposite();
+			if (opaqueness < 1) {
+				g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+			}
+			/* particle coordinates are relative to the same origin as the system's own corner */
+			Vector2 origin = getTopLeftCorner();
+			float offsetX = topLeftCorner.x() - origin.x();
+			float offsetY = topLeftCorner.y() - origin.y();
+			int size = Math.round(particleSize);
+			float half = particleSize / 2f;
+
+			for (int n = 0; n < count; n++) {
+				int i = (head + n) % capacity;
+				float alpha = fadeElapsed[i] == FALLING ? 1f : 1f - fadeElapsed[i] / fadeDuration;
+				g.setColor(shades[Math.max(0, Math.round(alpha * ALPHA_LEVELS))]);
+				g.fillRect(Math.round(x[i] - half + offsetX), Math.round(y[i] - half + offsetY),
+						size, size);
+			}
+			g.setComposite(composite);
+		}
+	}
+}
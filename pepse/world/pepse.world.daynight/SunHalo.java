@@ -2,7 +2,6 @@ package pepse.world.pepse.world.daynight;
 
 
 import danogl.GameObject;
-import danogl.components.Component;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.Renderable;
@@ -21,15 +20,15 @@ import java.awt.Color;
  *
  * <h3>Usage</h3>
  * <pre>{@code
- * GameObject sun      = Sun.create(windowDimensions);
- * GameObject sunHalo  = SunHalo.create(sun);
+ * GameObject sun      = Sun.create(windowDimensions, clock);
+ * GameObject sunHalo  = SunHalo.create(sun, clock);
  * gameObjects.addGameObject(sun,     SKY_LAYER);
  * gameObjects.addGameObject(sunHalo, SKY_LAYER);
  * }</pre>
  *
- * The halo registers an anonymous {@link Component} that, every frame, copies
- * the Sun’s centre to its own, yielding a lightweight “follow” behaviour with
- * no need for an explicit {@code Transition}.
+ * The halo registers with the {@link WorldClock} after the Sun, so on every
+ * tick it copies the centre the Sun has just been given and the two can never
+ * be a frame apart.
  * @author Noa
  */
 public final class SunHalo {
@@ -46,21 +45,22 @@ public final class SunHalo {
 	/**
 	 * Create a halo GameObject that constantly overlaps the supplied Sun.
 	 *
-	 * @param sun the existing Sun {@link GameObject} around which to draw the glow
-	 * @return    a fully-configured halo object; caller must add it to {@code gameObjects()}
+	 * @param sun   the existing Sun {@link GameObject} around which to draw the glow
+	 * @param clock the clock the Sun was created with
+	 * @return      a fully-configured halo object; caller must add it to {@code gameObjects()}
 	 */
-	public static GameObject create(GameObject sun) {
+	public static GameObject create(GameObject sun, WorldClock clock) {
 
 		Renderable renderable = new OvalRenderable(HALO_COLOR);
 		Vector2 haloDims = sun.getDimensions().mult(SIZE_FACTOR);
 		GameObject halo = new GameObject(Vector2.ZERO, haloDims, renderable);
 		halo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-		halo.addComponent(new Component() {
-			/** Copy the Sun’s centre into the halo once per frame. */
-			@Override
-			public void update(float deltaTime) {
-				halo.setCenter(sun.getCenter());
-			}
+		/* copy the Sun’s centre into the halo on every tick, without allocating */
+		clock.addListener(time -> {
+			Vector2 sunTopLeft = sun.getTopLeftCorner();
+			Vector2 sunDims    = sun.getDimensions();
+			halo.transform().setCenter(sunTopLeft.x() + sunDims.x() / 2f,
+					sunTopLeft.y() + sunDims.y() / 2f);
 		});
 
 		return halo;
@@ -0,0 +1,367 @@
+package pepse.world.pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.pepse.util.CoordinateRandom;
+import pepse.world.Avatar;
+import pepse.world.GroundHeightProvider;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps any number of clouds drifting across the sky and raining whenever the
+ * avatar jumps or stays in the air, at a bounded cost. The clouds and their
+ * drops look as {@link Cloud} describes.
+ *
+ * <p>Clouds are not game objects: their position, speed and shape live in
+ * primitive arrays, are advanced in one loop per frame and are drawn by this
+ * object's one {@link Renderable} from a few shapes rasterized once. They fly
+ * in a band {@link #SKY_SPAN} window widths wide, so the sky stays evenly
+ * covered while the clouds that are off-screen cost one subtraction each.
+ * A cloud leaving the band on the left re-enters it on the right with a new
+ * speed, altitude and shape. Every such choice is drawn from the
+ * {@link CoordinateRandom} key of the world seed, the cloud's slot and how
+ * many times that slot has re-entered, so the same seed always gives the
+ * same sky.</p>
+ *
+ * <p>Only clouds on screen rain, each on its own RAIN_SPAWN_INTERVAL timer.
+ * Two global limits keep the rain bounded however many clouds there are: at
+ * most {@link #RAIN_SPAWNS_PER_FRAME} drops are spawned per frame, with
+ * clouds served round-robin and the ones left over trying again next
+ * frame, and all drops share one {@link ParticleSystem} of
+ * {@link #MAX_RAINDROPS} particles that drops the oldest when full.</p>
+ *
+ * <p>The clouds are drawn in camera coordinates, but the rain falls in the
+ * world: a drop stops on the terrain surface right below where it was
+ * spawned, which is found once per drop by a
+ * {@link GroundHeightProvider#groundHeightAt(float)} lookup instead of by
+ * colliding with blocks, so a falling drop costs no more than before. A drop
+ * that lands throws up {@link #SPLASH_PARTICLES} splash particles from a
+ * second, smaller pool before it fades.</p>
+ * @author Roni
+ */
+public class WeatherSystem extends GameObject {
+
+	/** Pixel-art layouts clouds are drawn from; the first is the classic {@link Cloud} shape. */
+	private static final List<List<List<Integer>>> SHAPES = List.of(
+			Cloud.CLOUD_SHAPE,
+			List.of(
+					List.of(0, 0, 1, 1, 0, 0, 0, 0),
+					List.of(0, 1, 1, 1, 1, 1, 1, 0),
+					List.of(1, 1, 1, 1, 1, 1, 1, 1),
+					List.of(0, 1, 1, 1, 1, 1, 0, 0)
+			),
+			List.of(
+					List.of(0, 1, 1, 0),
+					List.of(1, 1, 1, 1),
+					List.of(0, 1, 1, 0)
+			)
+	);
+
+	/** Width of the band clouds fly in, in window widths. */
+	private static final float SKY_SPAN = 3f;
+
+	/** Altitude range of cloud centres, as fractions of the window height from the top. */
+	private static final float MIN_ALTITUDE = 0.08f;
+	private static final float MAX_ALTITUDE = 0.35f;
+
+	/** Drift speed range of the clouds (pixels/sec, leftward). */
+	private static final float MIN_SPEED = 15f;
+	private static final float MAX_SPEED = 60f;
+
+	/** Maximum number of raindrops spawned per frame, over all clouds. */
+	private static final int RAIN_SPAWNS_PER_FRAME = 4;
+
+	/** Maximum number of raindrops alive at once, over all clouds. */
+	private static final int MAX_RAINDROPS = 256;
+
+	/** Splash particles thrown up by every drop that lands. */
+	private static final int SPLASH_PARTICLES = 2;
+
+	/** Maximum number of splash particles alive at once. */
+	private static final int MAX_SPLASHES = MAX_RAINDROPS;
+
+	/** Width&nbsp;=&nbsp;height of a splash particle, in pixels. */
+	private static final float SPLASH_SIZE = 4f;
+
+	/** Sideways and upward launch speeds of splash particles (pixels/sec). */
+	private static final float SPLASH_SPEED_X = 60f;
+	private static final float SPLASH_SPEED_Y = 120f;
+
+	/** Downward acceleration of splash particles (pixels/sec&sup2;). */
+	private static final float SPLASH_GRAVITY = 900f;
+
+	/** Seconds a splash particle takes to fade out once it lands. */
+	private static final float SPLASH_FADE_DURATION = 0.2f;
+
+	/** {@link CoordinateRandom} salts of cloud and raindrop draws (Flora uses 0 and 1, Terrain 2). */
+	private static final int CLOUD_SALT = 3;
+	private static final int RAIN_SALT  = 4;
+
+	/** Tags. */
+	private static final String WEATHER = "weather";
+	private static final String RAIN = "rain";
+	private static final String SPLASH = "splash";
+
+	private final Vector2 windowDimensions;
+	private final int seed;
+	private final Avatar avatar;
+	private final GroundHeightProvider groundHeights;
+	private final Supplier<Vector2> cameraTopLeft;
+	private final ParticleSystem rain;
+	private final ParticleSystem splashes;
+	private final BufferedImage[] shapeImages = new BufferedImage[SHAPES.size()];
+	private final float spanRight;
+	private final long rainKey;
+
+	/* --- one entry per cloud --- */
+	private final float[] x;           // left edge
+	private final float[] y;           // top edge
+	private final float[] speed;
+	private final int[] shape;
+	private final int[] generation;    // times the slot re-entered the band
+	private final float[] rainTimer;
+	private final boolean[] wantsDrop;
+
+	private int rainCursor;
+	private int rainDraw;
+	private long deferredDrops;
+
+	/**
+	 * Creates a weather system and adds it, and its rain, to the scene.
+	 *
+	 * @param windowDimensions The (width, height) of the game window.
+	 * @param gameObjects      The scene's GameObjectCollection.
+	 * @param avatar           The Avatar whose jumps and flights make it rain.
+	 * @param seed             The world seed the sky is drawn from.
+	 * @param cloudCount       Number of clouds in flight, e.g.&nbsp;a few dozen for a cloudy day.
+	 * @param groundHeights    Where the terrain surface is, for the drops to land on.
+	 * @param cameraTopLeft    World-space top-left corner of the camera's view.
+	 * @return The weather system.
+	 */
+	public static WeatherSystem create(Vector2 windowDimensions, GameObjectCollection gameObjects,
+									   Avatar avatar, int seed, int cloudCount,
+									   GroundHeightProvider groundHeights,
+									   Supplier<Vector2> cameraTopLeft) {
+		/* the drops and splashes live in world space; their bounds follow the camera */
+		ParticleSystem rain = new ParticleSystem(Vector2.ZERO, windowDimensions, MAX_RAINDROPS,
+				Cloud.DROP_SIZE, Cloud.SKY_COLOR, Cloud.RAIN_FADE_DURATION);
+		rain.setTag(RAIN);
+		ParticleSystem splashes = new ParticleSystem(Vector2.ZERO, windowDimensions, MAX_SPLASHES,
+				SPLASH_SIZE, Cloud.SKY_COLOR, SPLASH_FADE_DURATION);
+		splashes.setGravity(SPLASH_GRAVITY);
+		splashes.setTag(SPLASH);
+
+		WeatherSystem weather = new WeatherSystem(windowDimensions, avatar, seed, cloudCount,
+				groundHeights, cameraTopLeft, rain, splashes);
+		weather.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+		weather.setTag(WEATHER);
+
+		gameObjects.addGameObject(weather, Layer.BACKGROUND);
+		gameObjects.addGameObject(rain, Layer.FOREGROUND);
+		gameObjects.addGameObject(splashes, Layer.FOREGROUND);
+		return weather;
+	}
+
+	/**
+	 * @param windowDimensions The (width, height) of the game window.
+	 * @param avatar           The Avatar whose jumps and flights make it rain.
+	 * @param seed             The world seed the sky is drawn from.
+	 * @param cloudCount       Number of clouds in flight.
+	 * @param groundHeights    Where the terrain surface is, for the drops to land on.
+	 * @param cameraTopLeft    World-space top-left corner of the camera's view.
+	 * @param rain             The world-space particle system the drops are spawned into.
+	 * @param splashes         The world-space particle system landing drops splash into.
+	 */
+	public WeatherSystem(Vector2 windowDimensions, Avatar avatar, int seed, int cloudCount,
+						 GroundHeightProvider groundHeights, Supplier<Vector2> cameraTopLeft,
+						 ParticleSystem rain, ParticleSystem splashes) {
+		super(Vector2.ZERO, windowDimensions, null);
+		if (cloudCount < 0) {
+			throw new IllegalArgumentException("cloud count must not be negative: " + cloudCount);
+		}
+		this.windowDimensions = windowDimensions;
+		this.avatar    = avatar;
+		this.seed      = seed;
+		this.groundHeights = groundHeights;
+		this.cameraTopLeft = cameraTopLeft;
+		this.rain      = rain;
+		this.splashes  = splashes;
+		this.spanRight = windowDimensions.x() * SKY_SPAN;
+		this.rainKey   = CoordinateRandom.key(seed, 0, RAIN_SALT);
+		for (int s = 0; s < shapeImages.length; s++) {
+			shapeImages[s] = Cloud.rasterize(SHAPES.get(s));
+		}
+
+		x          = new float[cloudCount];
+		y          = new float[cloudCount];
+		speed      = new float[cloudCount];
+		shape      = new int[cloudCount];
+		generation = new int[cloudCount];
+		rainTimer  = new float[cloudCount];
+		wantsDrop  = new boolean[cloudCount];
+		for (int i = 0; i < cloudCount; i++) {
+			/* spread the first clouds over the whole band, each at a random spot */
+			launch(i, 0f);
+			x[i] = CoordinateRandom.nextFloat(cloudKey(i), 3) * spanRight - width(i);
+		}
+		rain.setLandingListener(this::splash);
+		renderer().setRenderable(new SkyRenderable());
+	}
+
+	/** @return number of clouds in flight */
+	public int cloudCount() {
+		return x.length;
+	}
+
+	/** @return the particle system holding the rain */
+	public ParticleSystem rain() {
+		return rain;
+	}
+
+	/** @return the particle system holding the splashes */
+	public ParticleSystem splashes() {
+		return splashes;
+	}
+
+	/** @return number of drops postponed to a later frame by the per-frame budget */
+	public long deferredDropCount() {
+		return deferredDrops;
+	}
+
+	/**
+	 * Drifts every cloud, re-launches those that left the band, and spawns
+	 * this frame's share of rain.
+	 *
+	 * @param deltaTime seconds since the last frame
+	 */
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		float windowWidth = windowDimensions.x();
+		boolean jumped = avatar.jumpJustStarted();
+		if (jumped) {
+			avatar.clearJumpJustStarted();
+		}
+		boolean inAir = avatar.isInAir();
+		Vector2 camera = cameraTopLeft.get();
+		rain.transform().setTopLeftCorner(camera.x(), camera.y());
+		splashes.transform().setTopLeftCorner(camera.x(), camera.y());
+
+		/* 1. drift, and decide which on-screen clouds want to rain */
+		for (int i = 0; i < x.length; i++) {
+			x[i] -= speed[i] * deltaTime;
+			if (x[i] < -width(i)) {
+				generation[i]++;
+				launch(i, spanRight);
+			}
+			boolean onScreen = x[i] < windowWidth && x[i] + width(i) > 0;
+			if (!onScreen) {
+				wantsDrop[i] = false;
+				continue;
+			}
+			if (jumped) {
+				wantsDrop[i] = true;
+				rainTimer[i] = 0f;
+			}
+			rainTimer[i] += deltaTime;
+			if (rainTimer[i] >= Cloud.RAIN_SPAWN_INTERVAL) {
+				wantsDrop[i] |= inAir;
+				rainTimer[i] = 0f;
+			}
+		}
+
+		/* 2. spawn within the budget, starting where the last frame stopped */
+		int budget = RAIN_SPAWNS_PER_FRAME;
+		for (int n = 0; n < x.length; n++) {
+			int i = (rainCursor + n) % x.length;
+			if (!wantsDrop[i]) {
+				continue;
+			}
+			if (budget == 0) {
+				deferredDrops++;
+				continue;
+			}
+			spawnDrop(i, camera);
+			wantsDrop[i] = false;
+			budget--;
+			rainCursor = (i + 1) % x.length;
+		}
+	}
+
+	/** Gives cloud {@code i} its speed, altitude and shape for its current generation. */
+	private void launch(int i, float left) {
+		long key = cloudKey(i);
+		shape[i] = CoordinateRandom.nextInt(key, 0, SHAPES.size());
+		speed[i] = MIN_SPEED + CoordinateRandom.nextFloat(key, 1) * (MAX_SPEED - MIN_SPEED);
+		float altitude = MIN_ALTITUDE + CoordinateRandom.nextFloat(key, 2) * (MAX_ALTITUDE - MIN_ALTITUDE);
+		y[i] = windowDimensions.y() * altitude - height(i) / 2f;
+		x[i] = left;
+	}
+
+	private long cloudKey(int i) {
+		return CoordinateRandom.child(CoordinateRandom.key(seed, i, CLOUD_SALT), generation[i]);
+	}
+
+	/**
+	 * Spawns a raindrop at a random x under cloud {@code i}, just below its
+	 * bottom edge, that lands on the ground right below.
+	 */
+	private void spawnDrop(int i, Vector2 camera) {
+		float dropX = camera.x() + x[i] + CoordinateRandom.nextFloat(rainKey, rainDraw++) * width(i);
+		float dropY = camera.y() + y[i] + height(i) + Cloud.DROP_SIZE / 2f;
+		float floor = groundHeights.groundHeightAt(dropX) - Cloud.DROP_SIZE / 2f;
+		if (floor <= dropY) {
+			return;   // the cloud hangs below the ground here
+		}
+		rain.spawn(dropX, dropY, 0f, Cloud.RAIN_FALL_SPEED, floor);
+	}
+
+	/** Throws splash particles up and to both sides of a drop that landed. */
+	private void splash(float centerX, float centerY) {
+		float floor = centerY + (Cloud.DROP_SIZE - SPLASH_SIZE) / 2f;
+		for (int n = 0; n < SPLASH_PARTICLES; n++) {
+			float side = (n & 1) == 0 ? -1f : 1f;
+			splashes.spawn(centerX, floor, side * SPLASH_SPEED_X, -SPLASH_SPEED_Y, floor);
+		}
+	}
+
+	private float width(int i) {
+		return shapeImages[shape[i]].getWidth();
+	}
+
+	private float height(int i) {
+		return shapeImages[shape[i]].getHeight();
+	}
+
+	/** Draws every cloud that is on screen. */
+	private final class SkyRenderable implements Renderable {
+		@Override
+		public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+						   double degreesCounterClockwise, boolean isFlippedHorizontally,
+						   boolean isFlippedVertically, double opaqueness) {
+			Composite composite = g.getComposite();
+			if (opaqueness < 1) {
+				g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+			}
+			float windowWidth = windowDimensions.x();
+			for (int i = 0; i < x.length; i++) {
+				if (x[i] >= windowWidth || x[i] + width(i) <= 0) {
+					continue;
+				}
+				g.drawImage(shapeImages[shape[i]], Math.round(topLeftCorner.x() + x[i]),
+						Math.round(topLeftCorner.y() + y[i]), null);
+			}
+			g.setComposite(composite);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package pepse.world.pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The single time-of-day of the world, shared by every day/night visual.
+ *
+ * <p>Once per frame the clock advances its phase (0 at dawn, 0.5 at
+ * midnight, wrapping at 1) and then calls every registered {@link Listener}
+ * in registration order, so the sun, its halo and the night overlay are all
+ * set from the very same value and can never drift out of phase. The sine
+ * and cosine of the phase are read from a lookup table with linear
+ * interpolation and computed once per frame for all listeners.</p>
+ *
+ * <p>The clock can run faster or slower ({@link #setTimeScale(float)}, e.g.
+ * 0 to freeze the day) and jump ahead ({@link #fastForward(float)}). Advancing
+ * allocates nothing.</p>
+ * @author Roni
+ */
+public class WorldClock extends GameObject {
+
+	/** Something drawn from the time of day. */
+	public interface Listener {
+		/**
+		 * Called after every change of the time of day.
+		 *
+		 * @param clock the clock, already advanced
+		 */
+		void onTimeChanged(WorldClock clock);
+	}
+
+	/** Number of table entries per full turn; a power of two. */
+	private static final int TABLE_SIZE = 1024;
+
+	/** cos(2&pi; i / TABLE_SIZE), with one extra entry so interpolation never wraps. */
+	private static final float[] COS_TABLE = new float[TABLE_SIZE + 1];
+
+	static {
+		for (int i = 0; i <= TABLE_SIZE; i++) {
+			COS_TABLE[i] = (float) Math.cos(2 * Math.PI * i / TABLE_SIZE);
+		}
+	}
+
+	private final float cycleLength;
+	private final List<Listener> listeners = new ArrayList<>();
+	/** Fraction of the current day that has passed, in [0, 1). */
+	private double phase;
+	private float timeScale = 1f;
+	private float cosOfDay = 1f;
+	private float sinOfDay = 0f;
+
+	/**
+	 * @param cycleLength seconds of one full day/night cycle at time scale 1
+	 */
+	public WorldClock(float cycleLength) {
+		super(Vector2.ZERO, Vector2.ZERO, null);   // invisible object
+		if (cycleLength <= 0) {
+			throw new IllegalArgumentException("cycle length must be positive: " + cycleLength);
+		}
+		this.cycleLength = cycleLength;
+	}
+
+	/**
+	 * Registers a visual and immediately brings it to the current time.
+	 *
+	 * @param listener called after every change of the time of day, after the
+	 *                 listeners registered before it
+	 */
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+		listener.onTimeChanged(this);
+	}
+
+	/**
+	 * Advances the time of day by {@code deltaTime} times the time scale.
+	 *
+	 * @param deltaTime seconds since the last frame
+	 */
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		advance(deltaTime * timeScale);
+	}
+
+	/**
+	 * Jumps ahead, regardless of the time scale.
+	 *
+	 * @param seconds game seconds to skip; negative values turn the clock back
+	 */
+	public void fastForward(float seconds) {
+		advance(seconds);
+	}
+
+	/**
+	 * @param timeScale how many clock seconds pass per real second: 1 is normal,
+	 *                  0 stops the day, 2 runs it twice as fast
+	 */
+	public void setTimeScale(float timeScale) {
+		this.timeScale = timeScale;
+	}
+
+	/** @return how many clock seconds pass per real second */
+	public float timeScale() {
+		return timeScale;
+	}
+
+	/** @return seconds of one full day/night cycle at time scale 1 */
+	public float cycleLength() {
+		return cycleLength;
+	}
+
+	/** @return fraction of the day that has passed: 0 at dawn, 0.5 at midnight, in [0, 1) */
+	public float timeOfDay() {
+		return (float) phase;
+	}
+
+	/** @return cosine of the day's angle, {@code cos(2π · timeOfDay())} */
+	public float cosOfDay() {
+		return cosOfDay;
+	}
+
+	/** @return sine of the day's angle, {@code sin(2π · timeOfDay())} */
+	public float sinOfDay() {
+		return sinOfDay;
+	}
+
+	private void advance(float seconds) {
+		phase += seconds / cycleLength;
+		phase -= Math.floor(phase);   // keep in [0, 1), also after turning back
+		cosOfDay = cosOfTurns(phase);
+		sinOfDay = cosOfTurns(phase - 0.25);
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onTimeChanged(this);
+		}
+	}
+
+	/** cos(2π · turns), interpolated from the table. */
+	private static float cosOfTurns(double turns) {
+		double position = (turns - Math.floor(turns)) * TABLE_SIZE;
+		int index = Math.min((int) position, TABLE_SIZE - 1);   // turns may round up to 1
+		float fraction = (float) (position - index);
+		return COS_TABLE[index] + (COS_TABLE[index + 1] - COS_TABLE[index]) * fraction;
+	}
+}
@@ -5,20 +5,21 @@ import danogl.collisions.Layer;
 import pepse.world.Block;
 import pepse.world.GroundHeightProvider;
 import pepse.world.LayerProvider;
+import pepse.world.TimerWheel;
+import pepse.pepse.util.CoordinateRandom;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Random;
 
 /**
  * Plants trees (trunk + leaves + fruit) in a specified horizontal range and
  * returns every part together with its preferred layer.
  *
- * <p>All randomness is coordinate-deterministic: every decision is derived
- * from {@code Objects.hash(x, salt, worldSeed)}, so the same seed and the
- * same {@code x}-coordinate always recreate the identical tree, no matter
- * the call order.</p>
+ * <p>All randomness is coordinate-deterministic: every decision is drawn
+ * from the {@link CoordinateRandom} key of {@code (worldSeed, x, salt)}, so
+ * the same seed and the same {@code x}-coordinate always recreate the
+ * identical tree, no matter the call order, without allocating a random
+ * generator per column.</p>
  * @author noa j
  */
 public class Flora {
@@ -35,21 +36,34 @@ public class Flora {
 	/** Probability to plant a tree in a given block column. */
 	private static final double TREE_PROBABILITY = 0.10;
 
+	/** Salt of the "does this column grow a tree" decision. */
+	private static final int PLACEMENT_SALT = 0;
+
+	/** Salt of every decision inside a tree. */
+	private static final int TREE_SALT = 1;
+
 	private final GroundHeightProvider groundHeightProvider;
 	private final int worldSeed;
+	private final LeafSwaySystem leafSway;
+	private final TimerWheel timers;
 
 	/**
 	 * @param groundHeightProvider supplier of surface Y for any {@code x}
 	 * @param seed                 world seed for deterministic generation
+	 * @param leafSway             system that animates the leaves of every tree
+	 * @param timers               wheel that runs fruit respawns
 	 */
-	public Flora(GroundHeightProvider groundHeightProvider, int seed) {
+	public Flora(GroundHeightProvider groundHeightProvider, int seed,
+				 LeafSwaySystem leafSway, TimerWheel timers) {
 		this.groundHeightProvider = groundHeightProvider;
 		this.worldSeed            = seed;
+		this.leafSway             = leafSway;
+		this.timers               = timers;
 	}
 
-	/** Deterministic RNG keyed by (x, salt, worldSeed). */
-	private Random rngForX(int x, int salt) {
-		return new Random(Objects.hash(x, salt, worldSeed));
+	/** Deterministic random key of (worldSeed, x, salt). */
+	private long keyForX(int x, int salt) {
+		return CoordinateRandom.key(worldSeed, x, salt);
 	}
 
 	/**
@@ -61,21 +75,61 @@ public class Flora {
 	 * @return list of {@link LayeredObject}s ready for insertion
 	 */
 	public List<LayeredObject> createInRange(int minX, int maxX) {
-		List<LayeredObject> out = new ArrayList<>();
+		return materialize(planInRange(minX, maxX));
+	}
+
+	/**
+	 * Decides which columns of {@code [minX,maxX)} grow a tree and plans each
+	 * of them, without creating any game object. Safe to call from any thread.
+	 *
+	 * @param minX inclusive left bound, in world pixels
+	 * @param maxX exclusive right bound, in world pixels
+	 * @return one {@link TreePlan} per planted tree, ordered by {@code x}
+	 */
+	public List<TreePlan> planInRange(int minX, int maxX) {
+		List<TreePlan> plans = new ArrayList<>();
 
 		int startX = (minX / Block.SIZE) * Block.SIZE;
 		int endX   = ((maxX + Block.SIZE - 1) / Block.SIZE) * Block.SIZE;
 
 		for (int x = startX; x < endX; x += Block.SIZE) {
 
-			if (rngForX(x, 0).nextDouble() >= TREE_PROBABILITY) {
+			if (CoordinateRandom.nextDouble(keyForX(x, PLACEMENT_SALT), 0) >= TREE_PROBABILITY) {
 				continue;
 			}
 
 			float groundY = groundHeightProvider.groundHeightAt(x);
-			Random treeRng = rngForX(x, 1);
+			plans.add(Tree.plan(x, groundY, keyForX(x, TREE_SALT)));
+		}
+		return plans;
+	}
+
+	/**
+	 * Rebuilds the plan of a tree recorded earlier from its shape alone; see
+	 * {@link Tree#replant}. Safe to call from any thread.
+	 *
+	 * @param x           world-space x of the tree's column
+	 * @param groundY     surface y the tree was planted on
+	 * @param trunkHeight number of trunk segments
+	 * @param leafMask    foliage tiles holding a leaf
+	 * @param fruitMask   foliage tiles holding a fruit
+	 * @return the same {@link TreePlan} {@link #planInRange(int, int)} produced
+	 */
+	public TreePlan replant(int x, float groundY, int trunkHeight, int leafMask, int fruitMask) {
+		return Tree.replant(x, groundY, trunkHeight, leafMask, fruitMask, keyForX(x, TREE_SALT));
+	}
 
-			for (GameObject part : Tree.createTree(x, groundY, treeRng)) {
+	/**
+	 * Builds the game objects of previously planned trees and pairs each with
+	 * its target layer. Must run on the game thread.
+	 *
+	 * @param plans plans produced by {@link #planInRange(int, int)}
+	 * @return list of {@link LayeredObject}s ready for insertion
+	 */
+	public List<LayeredObject> materialize(List<TreePlan> plans) {
+		List<LayeredObject> out = new ArrayList<>();
+		for (TreePlan plan : plans) {
+			for (GameObject part : Tree.materialize(plan, leafSway, timers)) {
 				int layer = (part instanceof LayerProvider lp)
 						? lp.defaultLayer()
 						: Layer.STATIC_OBJECTS;
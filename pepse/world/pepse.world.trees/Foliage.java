@@ -0,0 +1,166 @@
+package pepse.world.pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.LayerProvider;
+import pepse.world.Unloadable;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.List;
+
+/**
+ * All the swaying leaves of one tree as a single decorative {@link GameObject}.
+ *
+ * <p>The foliage has <strong>no physics component</strong>, so the avatar can
+ * pass through it freely, and it lives on the {@link Layer#BACKGROUND} layer
+ * so that the trunk, fruit and the avatar render in front of it, exactly as
+ * separate leaf objects did. Its bounds are the box around every leaf tile,
+ * grown by half a tile on each side, which covers the largest rotation and
+ * scale a leaf reaches, so nothing it paints falls outside the area danogl
+ * considers visible.</p>
+ *
+ * <p>Each leaf keeps its planned sway, animated by a shared
+ * {@link LeafSwaySystem}; the size change stays anchored at the tile's
+ * top-left corner. The leaves' slots in that system are given back when the
+ * tree's chunk is unloaded.</p>
+ * @author Noa
+ */
+public class Foliage extends GameObject implements LayerProvider, Unloadable {
+
+	/** Foliage Tag. */
+	private static final String FOLIAGE = "foliage";
+
+	private final Color leafColor;
+	private final float leafSize;
+	private final LeafSwaySystem sway;
+
+	/* per leaf: offset from the bounds' top-left corner (world pixels) and sway slot */
+	private final float[] leafOffsetX;
+	private final float[] leafOffsetY;
+	private final int[] swaySlots;
+
+	/**
+	 * Builds the foliage of a tree; returns {@code null} if the plan has no leaves.
+	 *
+	 * @param tiles     the tiles of the tree's plan; fruit tiles are skipped
+	 * @param leafSize  width&nbsp;=&nbsp;height of a leaf tile at rest, in pixels
+	 * @param leafColor fill colour of the leaves
+	 * @param sway      system that animates the leaves
+	 * @return the foliage, or {@code null}
+	 */
+	public static Foliage create(List<TreePlan.Tile> tiles, float leafSize, Color leafColor,
+								 LeafSwaySystem sway) {
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		for (TreePlan.Tile tile : tiles) {
+			if (tile.fruit()) {
+				continue;
+			}
+			minX = Math.min(minX, tile.x());
+			minY = Math.min(minY, tile.y());
+			maxX = Math.max(maxX, tile.x() + leafSize);
+			maxY = Math.max(maxY, tile.y() + leafSize);
+		}
+		if (minX > maxX) {
+			return null;
+		}
+		float pad = leafSize / 2f;
+		Vector2 topLeft = new Vector2(minX - pad, minY - pad);
+		Vector2 size = new Vector2(maxX - minX + 2 * pad, maxY - minY + 2 * pad);
+		return new Foliage(topLeft, size, tiles, leafSize, leafColor, sway);
+	}
+
+	private Foliage(Vector2 topLeft, Vector2 size, List<TreePlan.Tile> tiles, float leafSize,
+					Color leafColor, LeafSwaySystem sway) {
+		super(topLeft, size, null);
+		this.leafColor = leafColor;
+		this.leafSize  = leafSize;
+		this.sway      = sway;
+
+		int count = 0;
+		for (TreePlan.Tile tile : tiles) {
+			if (!tile.fruit()) {
+				count++;
+			}
+		}
+		leafOffsetX = new float[count];
+		leafOffsetY = new float[count];
+		swaySlots   = new int[count];
+		int i = 0;
+		for (TreePlan.Tile tile : tiles) {
+			if (tile.fruit()) {
+				continue;
+			}
+			leafOffsetX[i] = tile.x() - topLeft.x();
+			leafOffsetY[i] = tile.y() - topLeft.y();
+			swaySlots[i]   = sway.register(tile.x() + leafSize / 2f,
+					tile.maxAngle(), tile.angleDuration(), tile.scaleDuration());
+			i++;
+		}
+
+		renderer().setRenderable(new FoliageRenderable());
+		setTag(FOLIAGE);
+	}
+
+	/** Gives the leaves' sway slots back once the tree leaves the world. */
+	@Override
+	public void onUnload() {
+		for (int slot : swaySlots) {
+			sway.unregister(slot);
+		}
+	}
+
+	/** @return number of leaf tiles drawn by this foliage */
+	public int leafCount() {
+		return leafOffsetX.length;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int defaultLayer() {
+		return Layer.BACKGROUND;
+	}
+
+	/** Paints every leaf at its current sway, in the screen space danogl hands in. */
+	private final class FoliageRenderable implements Renderable {
+		@Override
+		public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+						   double degreesCounterClockwise, boolean isFlippedHorizontally,
+						   boolean isFlippedVertically, double opaqueness) {
+			Vector2 size = getDimensions();
+			float scaleX = dimensions.x() / size.x();   // camera zoom, 1 in practice
+			float scaleY = dimensions.y() / size.y();
+			float left = topLeftCorner.x();
+			float top  = topLeftCorner.y();
+
+			Composite composite = g.getComposite();
+			AffineTransform transform = g.getTransform();
+			if (opaqueness < 1) {
+				g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+			}
+
+			g.setColor(leafColor);
+			for (int i = 0; i < leafOffsetX.length; i++) {
+				float angle = sway.angle(swaySlots[i]);
+				float scale = sway.scale(swaySlots[i]);
+				float x = left + leafOffsetX[i] * scaleX;
+				float y = top + leafOffsetY[i] * scaleY;
+				float w = leafSize * scale * scaleX;
+				float h = leafSize * scale * scaleY;
+				g.rotate(-Math.toRadians(angle), x + w / 2f, y + h / 2f);
+				g.fillRect(Math.round(x), Math.round(y), Math.round(w), Math.round(h));
+				g.setTransform(transform);
+			}
+
+			g.setComposite(composite);
+		}
+	}
+}
@@ -2,15 +2,17 @@ package pepse.world.pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.collisions.Layer;
-import danogl.components.ScheduledTask;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.util.Vector2;
 import pepse.world.Avatar;
 import pepse.world.Block;
 import pepse.world.LayerProvider;
+import pepse.world.TimerWheel;
+import pepse.world.Unloadable;
+import pepse.pepse.util.CoordinateRandom;
+import pepse.pepse.util.RenderableCache;
 
 import java.awt.Color;
-import java.util.Random;
 
 /**
  * A collectable fruit that restores the avatar’s energy and then “re-grows”
@@ -20,13 +22,15 @@ import java.util.Random;
  * <ol>
  *   <li>adds {@link #ENERGY_VALUE} units of energy to the avatar;</li>
  *   <li>becomes invisible and non-collidable;</li>
- *   <li>schedules a {@link ScheduledTask} that reactivates the fruit after
- *       {@link #RESPAWN_TIME} seconds, giving it a fresh random colour so the
+ *   <li>registers with the world's {@link TimerWheel} to reactivate after
+ *       {@link #RESPAWN_TIME} seconds, with a fresh random colour so the
  *       player can tell it has respawned.</li>
  * </ol>
+ *
+ * <p>A pending respawn is cancelled if the fruit's chunk is unloaded.</p>
  * @author Noa
  */
-public class Fruit extends GameObject implements LayerProvider {
+public class Fruit extends GameObject implements LayerProvider, Unloadable {
 
 	/** Energy units restored when picked up. */
 	public static final float ENERGY_VALUE = 10f;
@@ -42,27 +46,51 @@ public class Fruit extends GameObject implements LayerProvider {
 
 	/** Diameter of the fruit (60 % of a leaf tile). */
 	public static final float DIAM = Block.SIZE * 0.6f;
+	/** Size of a visible fruit, shared so a respawn allocates no vector. */
+	private static final Vector2 SIZE = new Vector2(DIAM, DIAM);
 	/** Colours used for respawn: red, orange, purple. */
 	private static final Color RED = new Color(220, 40, 40);   // red
 	private static final Color ORANGE = new Color(240, 180, 30);   // orange
 	private static final Color PURPLE = new Color(160, 40, 160);    // purple
+	private static final Color[] PALETTE = {RED, ORANGE, PURPLE};
 
 	private final OvalRenderable renderable;
-	private final Random rand;
+	private final long randomKey;
+	private final TimerWheel timers;
+	/** Created once, so scheduling a respawn allocates nothing. */
+	private final Runnable respawn = this::reactivate;
+	private int respawnTimer = TimerWheel.NO_TIMER;
+	/** Index of the next colour drawn from {@link #randomKey}; draw 0 is the initial colour. */
+	private int colorDraw = 1;
 
 	/**
 	 * Creates a new fruit game object.
 	 *
 	 * @param topLeftCorner world-space position of the fruit’s top-left corner
-	 * @param rand          deterministic random source used for respawn colour
+	 * @param randomKey     {@link CoordinateRandom} key of this fruit's colours
+	 * @param timers        wheel that runs the fruit's respawn
+	 */
+	public Fruit(Vector2 topLeftCorner, long randomKey, TimerWheel timers) {
+		this(topLeftCorner, randomColor(randomKey, 0), randomKey, timers);
+	}
+
+	/**
+	 * Creates a new fruit game object whose initial colour was already chosen,
+	 * e.g.&nbsp;while planning the tree on a worker thread.
+	 *
+	 * @param topLeftCorner world-space position of the fruit’s top-left corner
+	 * @param color         initial fruit colour
+	 * @param randomKey     {@link CoordinateRandom} key of this fruit's respawn colours
+	 * @param timers        wheel that runs the fruit's respawn
 	 */
-	public Fruit(Vector2 topLeftCorner, Random rand) {
+	public Fruit(Vector2 topLeftCorner, Color color, long randomKey, TimerWheel timers) {
 		super(topLeftCorner,
-				new Vector2(DIAM, DIAM),
-				new OvalRenderable(randomColor(rand)));
+				SIZE,
+				RenderableCache.oval(color));
 
 		this.renderable = (OvalRenderable) renderer().getRenderable();
-		this.rand       = rand;
+		this.randomKey  = randomKey;
+		this.timers     = timers;
 		setTag(FRUIT);
 	}
 
@@ -79,12 +107,19 @@ public class Fruit extends GameObject implements LayerProvider {
 		((Avatar) other).addEnergy(ENERGY_VALUE);
 		deactivate();
 
-		new ScheduledTask(
-				this,              // the task lives as long as this object
-				RESPAWN_TIME,
-				false,
-				this::reactivate
-		);
+		respawnTimer = timers.schedule(RESPAWN_TIME, respawn);
+	}
+
+	/** Drops a pending respawn; the fruit is rebuilt fresh if its chunk comes back. */
+	@Override
+	public void onUnload() {
+		timers.cancel(respawnTimer);
+		respawnTimer = TimerWheel.NO_TIMER;
+	}
+
+	/** @return seconds until this fruit respawns, or -1 if it is not waiting to */
+	public float secondsUntilRespawn() {
+		return timers.remainingSeconds(respawnTimer);
 	}
 
 	/** Makes the fruit invisible and non-collidable immediately after pickup. */
@@ -95,20 +130,20 @@ public class Fruit extends GameObject implements LayerProvider {
 
 	/** Restores the fruit’s renderable, size, and gives it a fresh random colour. */
 	private void reactivate() {
-		renderer().setRenderable(new OvalRenderable(randomColor(rand)));
-		setDimensions(new Vector2(DIAM, DIAM));
+		respawnTimer = TimerWheel.NO_TIMER;
+		renderer().setRenderable(RenderableCache.oval(randomColor(randomKey, colorDraw++)));
+		setDimensions(SIZE);
 	}
 
 	/**
 	 * Picks a random colour from a small palette so each respawn looks “fresh”.
 	 *
-	 * @param r random source (deterministic for this fruit)
-	 * @return  a colour chosen from the predefined palette
+	 * @param key  {@link CoordinateRandom} key of this fruit
+	 * @param draw index of the draw: 0 for the initial colour, then one per respawn
+	 * @return     a colour chosen from the predefined palette
 	 */
-	private static Color randomColor(Random r) {
-		Color[] palette = {
-				RED,ORANGE,PURPLE};
-		return palette[r.nextInt(palette.length)];
+	static Color randomColor(long key, int draw) {
+		return PALETTE[CoordinateRandom.nextInt(key, draw, PALETTE.length)];
 	}
 
 	/** Fruits belong on the static layer so they collide with the avatar. */
@@ -0,0 +1,188 @@
+package pepse.world.pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Animates the sway of every leaf in the world from one place.
+ *
+ * <p>Each registered leaf occupies a slot in a set of parallel primitive
+ * arrays: its world-space x, the moment it started swaying (its phase), the
+ * half-cycle of its rotation and of its scaling (its periods), and its
+ * rotation amplitude. Once per frame {@link #update(float)} walks the slots
+ * in a single loop and writes the current angle and size factor of every
+ * leaf within {@link #CULL_MARGIN} of the camera; leaves further away keep
+ * their last values. Because the values are a function of the clock rather
+ * than accumulated, a leaf that comes back into view continues exactly where
+ * it would have been.</p>
+ *
+ * <p>The motion is the one two {@code Transition}s per leaf used to produce:
+ * a cubic back-and-forth rotation between &minus;amplitude and +amplitude, and
+ * a cubic back-and-forth size change between {@link #MIN_SCALE} and
+ * {@link #MAX_SCALE}, both starting at their first value when the leaf is
+ * registered.</p>
+ * @author Noa
+ */
+public class LeafSwaySystem extends GameObject {
+
+	/** Smallest leaf size during the sway, as a factor of the resting size. */
+	public static final float MIN_SCALE = 0.9f;
+
+	/** Largest leaf size during the sway, as a factor of the resting size. */
+	public static final float MAX_SCALE = 1.1f;
+
+	/** How far beyond the camera edges leaves are still animated (pixels). */
+	private static final float CULL_MARGIN = 60f;
+
+	/** Number of slots allocated up front; doubled whenever it runs out. */
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final Supplier<Float> leftEdgeSupplier;
+	private final Supplier<Float> rightEdgeSupplier;
+
+	/* --- one entry per slot --- */
+	private boolean[] active   = new boolean[INITIAL_CAPACITY];
+	private float[] worldX     = new float[INITIAL_CAPACITY];
+	private double[] startTime = new double[INITIAL_CAPACITY];
+	private float[] amplitude  = new float[INITIAL_CAPACITY];
+	private float[] anglePeriod = new float[INITIAL_CAPACITY];
+	private float[] scalePeriod = new float[INITIAL_CAPACITY];
+	private float[] angle      = new float[INITIAL_CAPACITY];
+	private float[] scale      = new float[INITIAL_CAPACITY];
+
+	/* --- slot bookkeeping --- */
+	private int highWater;
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int freeCount;
+	private int activeCount;
+
+	/** Seconds since the system started; a double so hours of play keep sub-frame precision. */
+	private double clock;
+
+	/**
+	 * @param leftEdgeSupplier  supplies the left edge of the camera view
+	 * @param rightEdgeSupplier supplies the right edge of the camera view
+	 */
+	public LeafSwaySystem(Supplier<Float> leftEdgeSupplier, Supplier<Float> rightEdgeSupplier) {
+		super(Vector2.ZERO, Vector2.ZERO, null);   // invisible object
+		this.leftEdgeSupplier  = leftEdgeSupplier;
+		this.rightEdgeSupplier = rightEdgeSupplier;
+	}
+
+	/**
+	 * Starts swaying a leaf.
+	 *
+	 * @param leafCenterX   world-space x of the leaf's centre, used for culling
+	 * @param maxAngle      rotation amplitude, in degrees
+	 * @param angleDuration seconds per half-cycle of the rotation
+	 * @param scaleDuration seconds per half-cycle of the scaling
+	 * @return the leaf's slot, valid until passed to {@link #unregister(int)}
+	 */
+	public int register(float leafCenterX, float maxAngle, float angleDuration, float scaleDuration) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			if (highWater == active.length) {
+				grow();
+			}
+			slot = highWater++;
+		}
+		active[slot]      = true;
+		worldX[slot]      = leafCenterX;
+		startTime[slot]   = clock;
+		amplitude[slot]   = maxAngle;
+		anglePeriod[slot] = angleDuration;
+		scalePeriod[slot] = scaleDuration;
+		angle[slot]       = -maxAngle;
+		scale[slot]       = MIN_SCALE;
+		activeCount++;
+		return slot;
+	}
+
+	/**
+	 * Stops animating a leaf and frees its slot for reuse.
+	 *
+	 * @param slot a slot returned by {@link #register}
+	 */
+	public void unregister(int slot) {
+		if (!active[slot]) {
+			return;
+		}
+		active[slot] = false;
+		freeSlots[freeCount++] = slot;
+		activeCount--;
+	}
+
+	/**
+	 * @param slot a registered slot
+	 * @return the leaf's current rotation, in degrees
+	 */
+	public float angle(int slot) {
+		return angle[slot];
+	}
+
+	/**
+	 * @param slot a registered slot
+	 * @return the leaf's current size, as a factor of its resting size
+	 */
+	public float scale(int slot) {
+		return scale[slot];
+	}
+
+	/** @return number of leaves currently registered */
+	public int leafCount() {
+		return activeCount;
+	}
+
+	/**
+	 * Advances the clock and updates every registered leaf near the camera.
+	 *
+	 * @param deltaTime seconds since the last frame
+	 */
+	@Override
+	public void update(float deltaTime) {
+		super.update(deltaTime);
+		clock += deltaTime;
+		float left  = leftEdgeSupplier.get() - CULL_MARGIN;
+		float right = rightEdgeSupplier.get() + CULL_MARGIN;
+
+		for (int i = 0; i < highWater; i++) {
+			if (!active[i] || worldX[i] < left || worldX[i] > right) {
+				continue;
+			}
+			double time = clock - startTime[i];
+			angle[i] = amplitude[i] * (2f * backAndForth(time, anglePeriod[i]) - 1f);
+			scale[i] = MIN_SCALE + (MAX_SCALE - MIN_SCALE) * backAndForth(time, scalePeriod[i]);
+		}
+	}
+
+	/**
+	 * Cubic back-and-forth easing, as {@code Transition.CUBIC_INTERPOLATOR_FLOAT}
+	 * with {@code TRANSITION_BACK_AND_FORTH}: 0 &rarr; 1 during the first half-cycle,
+	 * 1 &rarr; 0 during the second.
+	 */
+	private static float backAndForth(double time, float halfCycle) {
+		float t = (float) (time % (2.0 * halfCycle)) / halfCycle;
+		if (t > 1f) {
+			t = 2f - t;
+		}
+		return t * t * (3f - 2f * t);
+	}
+
+	private void grow() {
+		int capacity = active.length * 2;
+		active      = Arrays.copyOf(active, capacity);
+		worldX      = Arrays.copyOf(worldX, capacity);
+		startTime   = Arrays.copyOf(startTime, capacity);
+		amplitude   = Arrays.copyOf(amplitude, capacity);
+		anglePeriod = Arrays.copyOf(anglePeriod, capacity);
+		scalePeriod = Arrays.copyOf(scalePeriod, capacity);
+		angle       = Arrays.copyOf(angle, capacity);
+		scale       = Arrays.copyOf(scale, capacity);
+		freeSlots   = Arrays.copyOf(freeSlots, capacity);
+	}
+}
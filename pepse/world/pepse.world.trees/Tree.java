@@ -2,28 +2,27 @@ package pepse.world.pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.world.Block;
+import pepse.world.TimerWheel;
+import pepse.pepse.util.CoordinateRandom;
 
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * <p>A utility class that builds a single <em>tree</em> instance for the Pepse world.</p>
  *
- * <p>The generated tree is composed of two kinds of parts:</p>
+ * <p>The generated tree is composed of three kinds of parts:</p>
  * <ul>
- *   <li><strong>Trunk segments</strong> – narrow {@link GameObject}s, one per 30 px “tile”.
- *       Each segment is given {@linkplain GameObjectPhysics#IMMOVABLE_MASS infinite mass}
- *       plus a call to {@code physics().preventIntersectionsFromDirection(Vector2.ZERO)},
- *       so the avatar collides with the trunk but the trunk never moves.</li>
- *   <li><strong>Leaves</strong> – decorative square {@link GameObject}s that have
- *       <em>no</em> physics component, so the avatar can pass through them freely.</li>
+ *   <li><strong>A {@link TreeInstance}</strong> – one {@link GameObject} whose bounds are
+ *       the whole trunk (4–7 tiles of 30 px), with
+ *       {@linkplain GameObjectPhysics#IMMOVABLE_MASS infinite mass}, so the avatar collides
+ *       with the trunk but the trunk never moves.</li>
+ *   <li><strong>A {@link Foliage}</strong> – one background object painting all the swaying
+ *       leaves, which have no collider, so the avatar passes through them.</li>
+ *   <li><strong>Fruit</strong> – separate collectable {@link Fruit} objects.</li>
  * </ul>
  *
  * <p>The class is <em>stateless</em> (all methods are {@code static}); therefore it is
@@ -57,6 +56,12 @@ public final class Tree {
 	/** Width & height of a single leaf block, in world pixels. */
 	private static final float LEAF_SIZE          = 30f;
 	private static final int TRUNK_SIZE          = 4;
+
+	/** The foliage is a square of this many tiles per side, centred on the trunk. */
+	private static final int FOLIAGE_SIDE = 3;
+
+	/** Random draws made for the sway of each leaf tile. */
+	private static final int SWAY_DRAWS = 3;
 	// Rotation Transition Constants
 	private static final float
 			MIN_LEAF_ROTATION_ANGLE_DEGREES = 5f;
@@ -67,11 +72,7 @@ public final class Tree {
 	private static final float
 			LEAF_ROTATION_TRANSITION_DURATION_RANGE_SECONDS = 0.8f; // To achieve 0.8-1.6 range
 
-	// Scale Transition Constants
-	private static final float
-			MIN_LEAF_SCALE_FACTOR = 0.9f;   // Represents 90% of LEAF_SIZE
-	private static final float
-			MAX_LEAF_SCALE_FACTOR = 1.1f;   // Represents 110% of LEAF_SIZE
+	// Scale Transition Constants (the 90 % ↔ 110 % range lives in LeafSwaySystem)
 	private static final float
 			MIN_LEAF_SCALE_TRANSITION_DURATION_SECONDS = 1.2f;
 	private static final float
@@ -84,7 +85,10 @@ public final class Tree {
 	 *
 	 * @param x         world-space <em>x</em> of the trunk centre.
 	 * @param groundY   <em>y</em> coordinate of the terrain surface beneath the trunk.
-	 * @param rand      random source (used for trunk height and missing leaves).
+	 * @param key       {@link CoordinateRandom} key of the tree (trunk height, missing leaves,
+	 *                  fruit and sway).
+	 * @param sway      the system that animates the tree's leaves.
+	 * @param timers    the wheel that runs fruit respawns.
 	 *
 	 * @return an immutable {@link List} containing every {@link GameObject} that
 	 *         makes up the tree (trunk + leaves).
@@ -92,123 +96,141 @@ public final class Tree {
 	 *         and choosing appropriate layers.
 	 */
 	public static List<GameObject> createTree(float x, float groundY,
-											  Random rand) {
-		List<GameObject> objects = new ArrayList<>();
+											  long key, LeafSwaySystem sway, TimerWheel timers) {
+		return materialize(plan(x, groundY, key), sway, timers);
+	}
 
-		/* ----- 1. Generate trunk ---------------------------------------------------------------- */
-		int trunkHeight = TRUNK_SIZE + rand.nextInt(TRUNK_SIZE);  // 4–7 segments
+	/**
+	 * Makes every random decision for a tree without creating any game object.
+	 * Safe to call from any thread.
+	 *
+	 * @param x         world-space <em>x</em> of the trunk centre.
+	 * @param groundY   <em>y</em> coordinate of the terrain surface beneath the trunk.
+	 * @param key       {@link CoordinateRandom} key of the tree (trunk height, missing leaves,
+	 *                  fruit and sway).
+	 *
+	 * @return a {@link TreePlan} that {@link #materialize(TreePlan)} turns into game objects.
+	 */
+	public static TreePlan plan(float x, float groundY, long key) {
+		int draw = 0;   // index of the next value drawn from the key
 
-		for (int i = 0; i < trunkHeight; i++) {
-			// pass the true column left-edge (float) and the **base** groundY
-			GameObject trunkSegment =
-					createTrunk(rand, x, groundY, i);
-			objects.add(trunkSegment);
-		}
-		/* ---------- leaves OR fruit (never both)  ----------------------------- */
-		int leafStartY = Math.round(groundY - TRUNK_HEIGHT_UNIT * trunkHeight);
+		/* ----- 1. Trunk height ------------------------------------------------------------------ */
+		int trunkHeight = TRUNK_SIZE + CoordinateRandom.nextInt(key, draw++, TRUNK_SIZE);  // 4–7 segments
 
+		/* ----- 2. leaves OR fruit (never both), tile by tile ------------------------------------ */
+		int leafMask  = 0;
+		int fruitMask = 0;
+		for (int tile = 0; tile < FOLIAGE_SIDE * FOLIAGE_SIDE; tile++) {
 
-		for (int dx = -1; dx <= 1; dx++) {
-			for (int dy = 0; dy <= 2; dy++) {
+			/* skip whole tile if “missing leaf” */
+			if (CoordinateRandom.nextFloat(key, draw++) < LEAF_MISSING_PROB) continue;
 
-				/* skip whole tile if “missing leaf” */
-				if (rand.nextFloat() < LEAF_MISSING_PROB) continue;
+			if (CoordinateRandom.nextFloat(key, draw++) < FRUIT_PROB) {
+				fruitMask |= 1 << tile;
+			} else {
+				leafMask |= 1 << tile;
+				draw += SWAY_DRAWS;   // drawn by replant
+			}
+		}
 
-				Vector2 tileTopLeft = new Vector2(
-						x + dx * LEAF_SIZE,
-						leafStartY - dy * LEAF_SIZE
-				);
+		return replant(x, groundY, trunkHeight, leafMask, fruitMask, key);
+	}
 
-				/* 1️⃣ decide what grows on this tile */
-				boolean growFruit = rand.nextFloat() < FRUIT_PROB;
-
-				if (growFruit) {
-					/* ---- fruit only ------------------------------------------------ */
-					Vector2 fruitPos = new Vector2(
-							tileTopLeft.x() + (LEAF_SIZE - Fruit.DIAM) / 2f,
-							tileTopLeft.y() + (LEAF_SIZE - Fruit.DIAM) / 2f
-					);
-					Fruit fruit = new Fruit(fruitPos, rand);      // LayerProvider → STATIC
-					objects.add(fruit);
-
-				} else {
-					/* ---- decorative leaf only ------------------------------------- */
-					Leaf leaf = new Leaf(tileTopLeft, LEAF_SIZE, LEAF_COLOR); // LayerProvider → BACKGROUND
-					startLeafSwayTransitions(leaf, rand);
-					objects.add(leaf);
-				}
+	/**
+	 * Rebuilds the plan of a tree from its stored shape, e.g.&nbsp;from a
+	 * {@code ChunkStore}, without redoing any decision already recorded: only the
+	 * leaves' sway and the fruit colours are drawn again from the key, directly
+	 * at the indices {@link #plan(float, float, long)} used. The result equals the
+	 * original plan. Safe to call from any thread.
+	 *
+	 * @param x           world-space <em>x</em> of the trunk centre.
+	 * @param groundY     <em>y</em> coordinate of the terrain surface beneath the trunk.
+	 * @param trunkHeight number of trunk segments.
+	 * @param leafMask    bit {@code i} set if foliage tile {@code i} holds a leaf.
+	 * @param fruitMask   bit {@code i} set if foliage tile {@code i} holds a fruit.
+	 * @param key         {@link CoordinateRandom} key of the tree.
+	 *
+	 * @return the tree's {@link TreePlan}.
+	 */
+	public static TreePlan replant(float x, float groundY, int trunkHeight,
+								   int leafMask, int fruitMask, long key) {
+		int draw = 1;   // draw 0 chose the trunk height
+		int leafStartY = Math.round(groundY - TRUNK_HEIGHT_UNIT * trunkHeight);
+		List<TreePlan.Tile> tiles = new ArrayList<>();
+
+		for (int tile = 0; tile < FOLIAGE_SIDE * FOLIAGE_SIDE; tile++) {
+			int bit = 1 << tile;
+			draw++;   // the “missing leaf” decision
+			if (((leafMask | fruitMask) & bit) == 0) continue;
+			draw++;   // the fruit decision
+
+			int dx = tile / FOLIAGE_SIDE - 1;
+			int dy = tile % FOLIAGE_SIDE;
+			float tileX = x + dx * LEAF_SIZE;
+			float tileY = leafStartY - dy * LEAF_SIZE;
+
+			if ((fruitMask & bit) != 0) {
+				/* each fruit gets its own key, so its respawn colours never shift the tree's draws */
+				long fruitKey = CoordinateRandom.child(key, tiles.size());
+				tiles.add(new TreePlan.Tile(tileX, tileY, true,
+						Fruit.randomColor(fruitKey, 0), fruitKey, 0f, 0f, 0f));
+			} else {
+				/* Gentle rotation ±(5-12°), 0.8-1.6 s and 1.2-2.4 s per half-cycle */
+				float maxAngle = MIN_LEAF_ROTATION_ANGLE_DEGREES +
+						CoordinateRandom.nextFloat(key, draw++) * LEAF_ROTATION_ANGLE_RANGE_DEGREES;
+				float angleDuration = MIN_LEAF_ROTATION_TRANSITION_DURATION_SECONDS
+						+ CoordinateRandom.nextFloat(key, draw++)
+						* LEAF_ROTATION_TRANSITION_DURATION_RANGE_SECONDS;
+				float scaleDuration = MIN_LEAF_SCALE_TRANSITION_DURATION_SECONDS
+						+ CoordinateRandom.nextFloat(key, draw++)
+						* LEAF_SCALE_TRANSITION_DURATION_RANGE_SECONDS;
+				tiles.add(new TreePlan.Tile(tileX, tileY, false, null, 0L,
+						maxAngle, angleDuration, scaleDuration));
 			}
 		}
 
-		return objects;
+		return new TreePlan(x, groundY, trunkHeight, tiles, leafMask, fruitMask, key);
 	}
+
 	/**
-	 * Creates a single trunk segment at the specified <em>x</em>-coordinate.
+	 * Builds the game objects described by a {@link TreePlan}. Must run on the game thread.
 	 *
-	 * @param rand         random source (not used, but required for consistency).
-	 * @param trunkX      world-space <em>x</em> of the trunk centre.
-	 * @param baseGroundY <em>y</em> coordinate of the terrain surface beneath the trunk.
-	 * @param index       zero-based index of this segment, counting from the ground up.
+	 * @param plan a plan produced by {@link #plan(float, float, long)}.
+	 * @param sway the system that animates the tree's leaves.
+	 * @param timers the wheel that runs fruit respawns.
 	 *
-	 * @return a {@link GameObject} representing a single trunk segment.
+	 * @return every {@link GameObject} that makes up the tree (trunk + foliage + fruit).
 	 */
-	private static GameObject createTrunk(Random rand,
-										  float trunkX,   // keep as float
-										  float baseGroundY,
-										  int index) {
-
-		Vector2 segmentTopLeft = new Vector2(
-				trunkX + (LEAF_SIZE - TRUNK_WIDTH) / 2f,
-				baseGroundY - TRUNK_HEIGHT_UNIT * (index + 1)   // single offset
-		);
+	public static List<GameObject> materialize(TreePlan plan, LeafSwaySystem sway,
+											   TimerWheel timers) {
+		List<GameObject> objects = new ArrayList<>();
 
-		GameObject segment = new GameObject(
-				segmentTopLeft,
-				new Vector2(TRUNK_WIDTH, TRUNK_HEIGHT_UNIT),
-				new RectangleRenderable(TRUNK_COLOR));
+		/* ---- trunk: one collider however many segments tall ---------------- */
+		Vector2 trunkTopLeft = new Vector2(
+				plan.x() + (LEAF_SIZE - TRUNK_WIDTH) / 2f,
+				plan.groundY() - TRUNK_HEIGHT_UNIT * plan.trunkHeight());
+		objects.add(new TreeInstance(trunkTopLeft,
+				new Vector2(TRUNK_WIDTH, TRUNK_HEIGHT_UNIT * plan.trunkHeight()),
+				TRUNK_COLOR));   // LayerProvider → STATIC
+
+		/* ---- foliage: every leaf in one object, behind the trunk ----------- */
+		Foliage foliage = Foliage.create(plan.tiles(), LEAF_SIZE, LEAF_COLOR, sway);
+		if (foliage != null) {
+			objects.add(foliage);   // LayerProvider → BACKGROUND
+		}
 
-		segment.physics().preventIntersectionsFromDirection(Vector2.ZERO);
-		segment.physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+		for (TreePlan.Tile tile : plan.tiles()) {
+			if (tile.fruit()) {
+				/* ---- fruit stay separate so they can be collected -------------- */
+				Vector2 fruitPos = new Vector2(
+						tile.x() + (LEAF_SIZE - Fruit.DIAM) / 2f,
+						tile.y() + (LEAF_SIZE - Fruit.DIAM) / 2f
+				);
+				objects.add(new Fruit(fruitPos, tile.fruitColor(), tile.fruitKey(), timers)); // LayerProvider → STATIC
+			}
+		}
 
-		return segment;
-	}
-	/** Starts two BACK_AND_FORTH transitions that repeat forever. */
-	private static void startLeafSwayTransitions(GameObject leaf, Random rand) {
-
-		/* 1. Gentle rotation ±(5-12°) */
-		float maxAngle = MIN_LEAF_ROTATION_ANGLE_DEGREES +
-				rand.nextFloat() * LEAF_ROTATION_ANGLE_RANGE_DEGREES;
-
-		new Transition<>(
-				leaf,                                           // gameObjectToUpdateThrough
-				leaf.renderer()::setRenderableAngle,            // setter
-				-maxAngle,                                      // initial value
-				+maxAngle,                                      // final value
-				Transition.CUBIC_INTERPOLATOR_FLOAT,            // interpolator
-				MIN_LEAF_ROTATION_TRANSITION_DURATION_SECONDS
-						+ rand.nextFloat() *
-						LEAF_ROTATION_TRANSITION_DURATION_RANGE_SECONDS, // 0.8-1.6 s per half-cycle
-				Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-				null                                            // no on-finish callback
-		);
-
-		/* 2. Subtle scale change (90 % ↔ 110 %) */
-		Vector2 fromDim = new Vector2(LEAF_SIZE *
-				MIN_LEAF_SCALE_FACTOR, LEAF_SIZE * MIN_LEAF_SCALE_FACTOR);
-		Vector2 toDim   = new Vector2(LEAF_SIZE *
-				MAX_LEAF_SCALE_FACTOR, LEAF_SIZE * MAX_LEAF_SCALE_FACTOR);
-
-		new Transition<>(
-				leaf,
-				leaf::setDimensions,
-				fromDim,
-				toDim,
-				Transition.CUBIC_INTERPOLATOR_VECTOR,
-				MIN_LEAF_SCALE_TRANSITION_DURATION_SECONDS +
-						rand.nextFloat() * LEAF_SCALE_TRANSITION_DURATION_RANGE_SECONDS, //1.2-2.4s per half
-				Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-				null
-		);
+		return objects;
 	}
 
 	/* Prevent instantiation */
@@ -0,0 +1,46 @@
+package pepse.world.pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.components.GameObjectPhysics;
+import danogl.util.Vector2;
+import pepse.pepse.util.RenderableCache;
+import pepse.world.LayerProvider;
+
+import java.awt.Color;
+
+/**
+ * A whole tree trunk as a single {@link GameObject}.
+ *
+ * <p>The object's bounds are exactly the trunk, so the trunk is one
+ * immovable collider no matter how many segments tall it is, drawn as one
+ * rectangle instead of a stack of segment objects. The tree's leaves are a
+ * separate {@link Foliage} behind it.</p>
+ *
+ * <p>Fruit are not part of the trunk either; they stay separate objects so
+ * they can still be collected.</p>
+ * @author Noa
+ */
+public class TreeInstance extends GameObject implements LayerProvider {
+
+	/** Tree Tag. */
+	private static final String TREE = "tree";
+
+	/**
+	 * @param trunkTopLeft world-space top-left corner of the whole trunk
+	 * @param trunkSize    width and total height of the trunk
+	 * @param trunkColor   fill colour of the trunk
+	 */
+	public TreeInstance(Vector2 trunkTopLeft, Vector2 trunkSize, Color trunkColor) {
+		super(trunkTopLeft, trunkSize, RenderableCache.rectangle(trunkColor));
+		physics().preventIntersectionsFromDirection(Vector2.ZERO);
+		physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+		setTag(TREE);
+	}
+
+	/** The trunk is a collider, so the tree lives on the static layer. */
+	@Override
+	public int defaultLayer() {
+		return Layer.STATIC_OBJECTS;
+	}
+}
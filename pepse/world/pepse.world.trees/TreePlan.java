@@ -0,0 +1,41 @@
+package pepse.world.pepse.world.trees;
+
+import java.awt.Color;
+import java.util.List;
+
+/**
+ * Engine-free description of a single tree, produced by {@link Tree#plan} and
+ * turned into game objects by {@link Tree#materialize}.
+ *
+ * <p>A plan holds only numbers and colours, so it can be computed on a worker
+ * thread; every random draw the tree needs has already been made. Fruit keep
+ * drawing respawn colours from their own key.</p>
+ *
+ * @param x           world-space <em>x</em> of the trunk column
+ * @param groundY     <em>y</em> coordinate of the terrain surface beneath the trunk
+ * @param trunkHeight number of trunk segments
+ * @param tiles       every foliage tile that is not missing
+ * @param leafMask    bit {@code i} set if foliage tile {@code i} (column-major, from the
+ *                    bottom-left) holds a leaf
+ * @param fruitMask   bit {@code i} set if foliage tile {@code i} holds a fruit
+ * @param key         the tree's {@link pepse.pepse.util.CoordinateRandom} key
+ * @author Noa
+ */
+public record TreePlan(float x, float groundY, int trunkHeight, List<Tile> tiles,
+					   int leafMask, int fruitMask, long key) {
+
+	/**
+	 * A single foliage tile: either a fruit or a swaying leaf.
+	 *
+	 * @param x             top-left <em>x</em> of the tile
+	 * @param y             top-left <em>y</em> of the tile
+	 * @param fruit         {@code true} if a fruit grows here instead of a leaf
+	 * @param fruitColor    initial fruit colour (fruit tiles only)
+	 * @param fruitKey      random key the fruit draws its respawn colours from (fruit tiles only)
+	 * @param maxAngle      leaf sway amplitude in degrees (leaf tiles only)
+	 * @param angleDuration seconds per half-cycle of the sway rotation (leaf tiles only)
+	 * @param scaleDuration seconds per half-cycle of the sway scaling (leaf tiles only)
+	 */
+	public record Tile(float x, float y, boolean fruit, Color fruitColor, long fruitKey,
+					   float maxAngle, float angleDuration, float scaleDuration) {}
+}
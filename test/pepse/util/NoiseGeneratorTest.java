@@ -0,0 +1,46 @@
+package pepse.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the VECTOR backend produces exactly the noise of the SCALAR
+ * one. Skipped unless the optional {@code vector/} source root is on the
+ * class path and the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ */
+class NoiseGeneratorTest {
+
+	/** World seeds every check runs over, including the int extremes. */
+	private static final int[] SEEDS = {0, 1, -1, 42, 1000, 123456789,
+			Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+	/** Start point and factor the terrain samples its noise with. */
+	private static final int START_POINT = 100;
+	private static final double FACTOR = 600;
+
+	/** Samples on each side of x = 0, spaced like the terrain's block columns. */
+	private static final int SAMPLES = 2000;
+	private static final double STEP = 30 * 0.08;
+
+	@Test
+	void vectorBackendEqualsScalarBackend() {
+		double[] scalarNoise = new double[2 * SAMPLES];
+		double[] vectorNoise = new double[2 * SAMPLES];
+		for (NoiseGenerator.Mode mode : NoiseGenerator.Mode.values()) {
+			for (int seed : SEEDS) {
+				NoiseGenerator scalar = new NoiseGenerator(seed, START_POINT, mode);
+				NoiseGenerator vector = new NoiseGenerator(seed, START_POINT, mode);
+				assumeTrue(vector.useBackend(NoiseGenerator.Backend.VECTOR) == NoiseGenerator.Backend.VECTOR,
+						"vector backend unavailable on this JVM");
+				scalar.noiseRange(-SAMPLES * STEP, STEP, scalarNoise.length, FACTOR, scalarNoise);
+				vector.noiseRange(-SAMPLES * STEP, STEP, vectorNoise.length, FACTOR, vectorNoise);
+				for (int i = 0; i < scalarNoise.length; i++) {
+					assertEquals(scalarNoise[i], vectorNoise[i],
+							mode + " seed " + seed + ", sample " + i);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the column height cache returns exactly what the terrain
+ * returns, and that its statistics count exactly the columns it answered and
+ * computed.
+ * @author Noa
+ */
+class CachedGroundHeightProviderTest {
+
+	/** Window size the terrain is built for; it sets the ground level. */
+	private static final Vector2 WINDOW = new Vector2(1024, 730);
+
+	/** World seeds every check runs over, including the int extremes. */
+	private static final int[] SEEDS = {0, 1, -1, 42, 1000, 123456789,
+			Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+	@Test
+	void cachedHeightsEqualTerrainHeights() {
+		/* far from the origin x / SIZE is rounded, so off-grid x right next to an edge matter most */
+		int[] firstColumns = {0, -3_334, 333_333, -8_388_600, 8_388_600, 33_333_333};
+		float[] xs = new float[4];
+		for (int seed : SEEDS) {
+			Terrain terrain = new Terrain(WINDOW, seed);
+			CachedGroundHeightProvider cache = new CachedGroundHeightProvider(terrain, 64);
+			for (int pass = 0; pass < 2; pass++) {   // the second pass is answered from the cache
+				for (int firstColumn : firstColumns) {
+					for (int column = firstColumn; column < firstColumn + 100; column++) {
+						float edge = column * 30f;
+						xs[0] = Math.nextDown(edge);
+						xs[1] = Math.nextUp(edge);
+						xs[2] = edge + 7.5f;
+						xs[3] = edge;   // after its neighbours, so a wrongly cached one shows
+						for (float x : xs) {
+							assertEquals(terrain.groundHeightAt(x), cache.groundHeightAt(x),
+									"seed " + seed + ", x = " + x);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void batchComputesOnlyUncachedColumns() {
+		Terrain terrain = new Terrain(WINDOW, 42);
+		int[] computed = {0};
+		GroundHeightProvider counting = new GroundHeightProvider() {
+			@Override
+			public float groundHeightAt(float x) {
+				computed[0]++;
+				return terrain.groundHeightAt(x);
+			}
+
+			@Override
+			public void groundHeightsAt(int startX, int step, int count, float[] out) {
+				computed[0] += count;
+				terrain.groundHeightsAt(startX, step, count, out);
+			}
+		};
+		CachedGroundHeightProvider cache = new CachedGroundHeightProvider(counting, 4096);
+		int cached = 0;
+		for (int column = 0; column < 50; column += 3) {   // scattered, so the batch has gaps
+			cache.groundHeightAt(column * Block.SIZE);
+			cached++;
+		}
+		int count = 60;
+		int startX = -10 * Block.SIZE;
+		float[] heights = new float[count];
+		float[] expected = new float[count];
+		cache.groundHeightsAt(startX, Block.SIZE, count, heights);
+		terrain.groundHeightsAt(startX, Block.SIZE, count, expected);
+		for (int i = 0; i < count; i++) {
+			assertEquals(expected[i], heights[i], "column " + i);
+		}
+		assertEquals(count, computed[0], "columns computed");   // the scattered ones, then the gaps
+		assertEquals(cached, cache.hits(), "hits");
+		assertEquals(count, cache.misses(), "misses");
+
+		cache.groundHeightsAt(startX, Block.SIZE, count, heights);
+		assertEquals(count, computed[0], "columns computed once every column is cached");
+		assertEquals(cached + count, cache.hits(), "hits once every column is cached");
+		assertEquals(count, cache.misses(), "misses once every column is cached");
+	}
+}
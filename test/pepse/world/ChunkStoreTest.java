@@ -0,0 +1,59 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+import pepse.world.pepse.world.trees.Flora;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a strip replayed from the {@link ChunkStore} equals a freshly
+ * planned one.
+ * @author Roni
+ */
+class ChunkStoreTest {
+
+	/** Window size the terrain is built for; it sets the ground level. */
+	private static final Vector2 WINDOW = new Vector2(1024, 730);
+
+	/** World seeds the replay runs over, including the int extremes. */
+	private static final int[] SEEDS = {0, 1, -1, 42, 1000, 123456789,
+			Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+	/** Chunks replayed on each side of chunk 0. */
+	private static final int CHUNKS = 20;
+
+	@Test
+	void replayedStripEqualsFreshlyPlannedOne() {
+		int width = InfiniteWorldManager.CHUNK_WIDTH;
+		int replayed = 0;
+		for (int seed : SEEDS) {
+			Terrain terrain = new Terrain(WINDOW, seed);
+			CachedGroundHeightProvider heights = new CachedGroundHeightProvider(terrain, 4096);
+			Flora flora = new Flora(heights, seed, null, null);   // planning only
+			ChunkStore store = new ChunkStore(flora);
+			for (int index = -CHUNKS; index < CHUNKS; index++) {
+				int minX = index * width;
+				int maxX = minX + width;
+				StripData fresh = new StripData(index, minX, maxX,
+						terrain.planInRange(minX, maxX, heights), flora.planInRange(minX, maxX));
+				store.save(fresh);
+				StripData stored = store.load(index);
+				if (stored == null) {
+					continue;   // too deep to record; the store plans it again instead
+				}
+				String where = "seed " + seed + ", chunk " + index;
+				assertEquals(fresh.index(), stored.index(), where);
+				assertEquals(fresh.minX(), stored.minX(), where);
+				assertEquals(fresh.maxX(), stored.maxX(), where);
+				assertEquals(fresh.ground().startX(), stored.ground().startX(), where);
+				assertArrayEquals(fresh.ground().topBlockY(), stored.ground().topBlockY(), where);
+				assertEquals(fresh.trees(), stored.trees(), where);
+				replayed++;
+			}
+		}
+		assertTrue(replayed > 0, "nothing was recorded");
+	}
+}
@@ -0,0 +1,70 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+import pepse.util.NoiseGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the terrain surface heights: the COMPATIBLE noise kernel still
+ * produces the heights of the original implementation, and batches equal
+ * single queries.
+ * @author Noa
+ */
+class TerrainTest {
+
+	/** Window size the terrain is built for; it sets the ground level. */
+	private static final Vector2 WINDOW = new Vector2(1024, 730);
+
+	/** World seeds every check runs over, including the int extremes. */
+	private static final int[] SEEDS = {0, 1, -1, 42, 1000, 123456789,
+			Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+	/** Columns checked on each side of x = 0. */
+	private static final int COLUMNS = 2000;
+
+	/**
+	 * Checksum of the original terrain's heights at every column edge and
+	 * column middle of {@link #COLUMNS}, over {@link #SEEDS}; see
+	 * {@link #heightChecksum(Terrain)}.
+	 */
+	private static final long ORIGINAL_HEIGHT_CHECKSUM = 0xadf7c01f45162852L;
+
+	@Test
+	void compatibleModeKeepsOriginalHeights() {
+		long checksum = 17;
+		for (int seed : SEEDS) {
+			checksum = 31 * checksum + heightChecksum(new Terrain(WINDOW, seed));
+		}
+		assertEquals(ORIGINAL_HEIGHT_CHECKSUM, checksum,
+				"checksum " + Long.toHexString(checksum));
+	}
+
+	@Test
+	void batchHeightsEqualSingleHeights() {
+		float[] heights = new float[2 * COLUMNS];
+		for (NoiseGenerator.Mode mode : NoiseGenerator.Mode.values()) {
+			for (int seed : SEEDS) {
+				Terrain terrain = new Terrain(WINDOW, seed, mode);
+				terrain.groundHeightsAt(-COLUMNS * Block.SIZE, Block.SIZE, heights.length, heights);
+				for (int i = 0; i < heights.length; i++) {
+					float x = (i - COLUMNS) * Block.SIZE;
+					assertEquals(terrain.groundHeightAt(x), heights[i],
+							mode + " seed " + seed + ", x = " + x);
+				}
+			}
+		}
+	}
+
+	/** Folds the heights at every column edge and column middle into one number. */
+	private static long heightChecksum(Terrain terrain) {
+		long checksum = 0;
+		for (int column = -COLUMNS; column < COLUMNS; column++) {
+			float x = column * 30f;
+			checksum = 31 * checksum + Float.floatToIntBits(terrain.groundHeightAt(x));
+			checksum = 31 * checksum + Float.floatToIntBits(terrain.groundHeightAt(x + 7.5f));
+		}
+		return checksum;
+	}
+}
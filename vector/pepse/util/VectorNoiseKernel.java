@@ -0,0 +1,176 @@
+package pepse.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link NoiseGenerator.Backend#VECTOR} backend: evaluates a lane-width of
+ * samples per step with the JDK Vector API.
+ *
+ * <p>With y and z pinned, the gradients of a unit cell depend on nothing but the
+ * cell's index, so every corner's gradient is reduced at construction to a pair
+ * of table entries: the coefficient of the x offset and the constant y part.
+ * Each octave then needs one gather per table and otherwise only lane-wise
+ * arithmetic. Every operation is performed in the same order and precision as
+ * in {@link NoiseGenerator}, so the results are identical (up to the sign of a
+ * zero, which the octave sum erases).</p>
+ *
+ * <p>This class is only loaded reflectively, by
+ * {@link NoiseGenerator#useBackend(NoiseGenerator.Backend)}, and only once the
+ * {@code jdk.incubator.vector} module is known to be present. Instances hold no
+ * mutable state and may be used by several threads at once.</p>
+ */
+final class VectorNoiseKernel implements NoiseGenerator.BatchKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    /* floats and ints with as many lanes as DOUBLES */
+    private static final VectorShape HALF_SHAPE = VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2);
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED.withShape(HALF_SHAPE);
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED.withShape(HALF_SHAPE);
+
+    /** Smallest double whose neighbours are a whole unit apart. */
+    private static final double TWO_POW_52 = 0x1p52;
+    /** Number of cells in the permutation table. */
+    private static final int CELLS = 256;
+    /* corners of the z = 0 face, in NoiseGenerator's order */
+    private static final int AA = 0;
+    private static final int BA = 1;
+    private static final int AB = 2;
+    private static final int BB = 3;
+
+    private final NoiseGenerator.Mode mode;
+    private final double seed;
+    private final double startPoint;
+    private final double pinnedYFade;
+    private final double fastSeedOffset;
+    /** The divisor of every octave, largest first. */
+    private final double[] octavePoints;
+
+    /** Per corner and cell: coefficient of the x offset in the gradient, one of 0, 1 and -1. */
+    private final double[][] gradientX = new double[4][CELLS];
+    /** Per corner and cell: the gradient's y part, which is the same for every sample. */
+    private final double[][] gradientY = new double[4][CELLS];
+    /** Per cell: slope of the fast kernel at the cell's left and right lattice point. */
+    private final float[] leftSlope = new float[CELLS];
+    private final float[] rightSlope = new float[CELLS];
+
+    /**
+     * @param generator the generator whose tables and pinned coordinates are vectorized
+     */
+    VectorNoiseKernel(NoiseGenerator generator) {
+        this.mode = generator.mode;
+        this.seed = generator.seed;
+        this.startPoint = generator.startPoint;
+        this.pinnedYFade = generator.pinnedYFade;
+        this.fastSeedOffset = generator.fastSeedOffset;
+
+        int octaves = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            octaves++;
+        }
+        this.octavePoints = new double[octaves];
+        double currentPoint = startPoint;
+        for (int o = 0; o < octaves; o++) {
+            octavePoints[o] = currentPoint;
+            currentPoint /= 2.0;
+        }
+
+        int[] p = generator.p;
+        double y = generator.pinnedYFraction;
+        for (int X = 0; X < CELLS; X++) {
+            int A = p[X] + generator.pinnedY;
+            int B = p[X + 1] + generator.pinnedY;
+            setCorner(AA, X, p[p[A]], y);
+            setCorner(BA, X, p[p[B]], y);
+            setCorner(AB, X, p[p[A + 1]], y - 1);
+            setCorner(BB, X, p[p[B + 1]], y - 1);
+            leftSlope[X] = NoiseGenerator.slope(p[X]);
+            rightSlope[X] = NoiseGenerator.slope(p[X + 1]);
+        }
+    }
+
+    /* grad(hash, x, y, 0) == x * grad(hash, 1, 0, 0) + grad(hash, 0, y, 0) for the 16 directions */
+    private void setCorner(int corner, int X, int hash, double y) {
+        gradientX[corner][X] = NoiseGenerator.grad(hash, 1, 0, 0);
+        gradientY[corner][X] = NoiseGenerator.grad(hash, 0, y, 0);
+    }
+
+    @Override
+    public void noiseAt(double[] xs, int count, double factor, double[] out) {
+        int[] cells = new int[DOUBLES.length()];
+        for (int i = 0; i < count; i += DOUBLES.length()) {
+            VectorMask<Double> active = DOUBLES.indexInRange(i, count);
+            DoubleVector x = DoubleVector.fromArray(DOUBLES, xs, i, active);
+            DoubleVector value = DoubleVector.zero(DOUBLES);
+            for (double currentPoint : octavePoints) {
+                DoubleVector octaveNoise = mode == NoiseGenerator.Mode.FAST
+                        ? fastNoise(x.div(currentPoint), cells)
+                        : compatibleNoise(x.div(currentPoint), cells);
+                value = value.add(octaveNoise.mul(currentPoint));
+            }
+            value.mul(factor).div(startPoint).intoArray(out, i, active);
+        }
+    }
+
+    private DoubleVector compatibleNoise(DoubleVector x, int[] cells) {
+        x = x.add(seed).add(seed);
+
+        DoubleVector floor = floor(x);
+        ((IntVector) floor.convertShape(VectorOperators.D2I, INTS, 0)).and(CELLS - 1)
+                .intoArray(cells, 0);
+        x = x.sub(floor);
+        DoubleVector u = x.mul(x).mul(x).mul(x.mul(x.mul(6).sub(15)).add(10));
+
+        DoubleVector xMinus1 = x.sub(1);
+        DoubleVector gAA = gradient(AA, x, cells);
+        DoubleVector gBA = gradient(BA, xMinus1, cells);
+        DoubleVector gAB = gradient(AB, x, cells);
+        DoubleVector gBB = gradient(BB, xMinus1, cells);
+
+        DoubleVector near = gAA.add(u.mul(gBA.sub(gAA)));
+        DoubleVector far = gAB.add(u.mul(gBB.sub(gAB)));
+        return near.add(far.sub(near).mul(pinnedYFade));
+    }
+
+    /**
+     * Math.floor, lane-wise: adding and subtracting 2^52 rounds any smaller
+     * magnitude to an integer, which is stepped down where it rounded up.
+     * Magnitudes of 2^52 and above are integers already.
+     */
+    private static DoubleVector floor(DoubleVector x) {
+        DoubleVector magnitude = x.abs();
+        DoubleVector rounded = magnitude.add(TWO_POW_52).sub(TWO_POW_52);
+        rounded = rounded.blend(magnitude, magnitude.compare(VectorOperators.GE, TWO_POW_52));
+        rounded = rounded.blend(rounded.neg(), x.lt(0));
+        return rounded.sub(1.0, x.lt(rounded));
+    }
+
+    private DoubleVector gradient(int corner, DoubleVector x, int[] cells) {
+        DoubleVector coefficient = DoubleVector.fromArray(DOUBLES, gradientX[corner], 0, cells, 0);
+        DoubleVector yPart = DoubleVector.fromArray(DOUBLES, gradientY[corner], 0, cells, 0);
+        return x.mul(coefficient).add(yPart);
+    }
+
+    private DoubleVector fastNoise(DoubleVector x, int[] cells) {
+        DoubleVector shifted = x.add(fastSeedOffset);
+
+        /* the same int truncation (and saturation) as the scalar kernel, then floor */
+        IntVector cell = (IntVector) shifted.convertShape(VectorOperators.D2I, INTS, 0);
+        DoubleVector cellX = (DoubleVector) cell.convertShape(VectorOperators.I2D, DOUBLES, 0);
+        VectorMask<Double> roundedUp = shifted.lt(cellX);
+        cell = cell.sub(1, roundedUp.cast(INTS));
+        cellX = cellX.sub(1.0, roundedUp);
+        cell.and(CELLS - 1).intoArray(cells, 0);
+
+        FloatVector fx = (FloatVector) shifted.sub(cellX).convertShape(VectorOperators.D2F, FLOATS, 0);
+        FloatVector u = fx.mul(fx).mul(fx).mul(fx.mul(fx.mul(6f).sub(15f)).add(10f));
+        FloatVector a = FloatVector.fromArray(FLOATS, leftSlope, 0, cells, 0).mul(fx);
+        FloatVector b = FloatVector.fromArray(FLOATS, rightSlope, 0, cells, 0).mul(fx.sub(1f));
+        return (DoubleVector) a.add(u.mul(b.sub(a))).convertShape(VectorOperators.F2D, DOUBLES, 0);
+    }
+}